@@ -1,15 +1,15 @@
 package com.example.endofthetrack_project.Controller;
 
 import com.example.endofthetrack_project.Model.AI.MCTSPlayer;
+import com.example.endofthetrack_project.Model.AI.SearchBudget;
+import com.example.endofthetrack_project.Model.AI.SearchHandle;
+import com.example.endofthetrack_project.Model.AI.SearchProgress;
 import com.example.endofthetrack_project.Model.Board;
-import com.example.endofthetrack_project.Model.Cell;
+import com.example.endofthetrack_project.Model.Move;
 import com.example.endofthetrack_project.View.BoardView;
 import javafx.application.Platform;
 import javafx.scene.text.Font;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * controller class that manage the game
  * @author maor
@@ -17,6 +17,15 @@ import java.util.List;
 
 public class GameController {
 
+    /**
+     * the level of the computer player (a number of iterations, so its strength does not depend on the load of the host)
+     * and the longest time it may think on a slow host
+     */
+    private static final int AI_LEVEL = 50;
+    private static final long AI_MAX_MILLIS = 10_000;
+    // the time between two updates of the progress of the computer player in the view
+    private static final long AI_PROGRESS_MILLIS = 1000;
+
     /**
      * attributes of the controller
      */
@@ -27,9 +36,14 @@ public class GameController {
     private int dest_col;
     private int dest_row;
     private static int count = 0;
-    private List<Cell> cells;
+    private int[] moves;
+    private int moveCount;
 
     private boolean isAI;
+    // the computer player, kept for the whole game so it can reuse its search tree
+    private MCTSPlayer mctsPlayer;
+    // the search of the computer player that runs now (or ran last)
+    private SearchHandle aiSearch;
 
     /**
      * construct the controller and set the controller object in the view
@@ -42,17 +56,43 @@ public class GameController {
         this.view = view;
         this.isAI = isAI;
         this.view.setController(this);
-        this.view.getTurn().setText(this.getModel().getCurrPlayer().getColor() + " turn");
+        this.view.getTurn().setText(this.getModel().getCurrPlayer().getColorName() + " turn");
         this.view.getTurn().setFont(Font.font(20));
-        this.cells = new ArrayList<>();
+        this.moves = new int[Move.MAX_MOVES];
+        if (isAI) {
+            this.mctsPlayer = new MCTSPlayer();
+            this.mctsPlayer.setBudget(SearchBudget.forLevel(AI_LEVEL).withMaxMillis(AI_MAX_MILLIS));
+            this.mctsPlayer.setThreads(Runtime.getRuntime().availableProcessors());
+            // the computer player searches while the human thinks
+            this.mctsPlayer.setPondering(true);
+        }
     }
 
     public void manageGameWithAi () {
         if (view.getWinner().getText().equals("")) {
+            SearchHandle search = mctsPlayer.startSearch(this.model, this::showProgress, AI_PROGRESS_MILLIS);
+            this.aiSearch = search;
             Thread aiThread = new Thread(() -> {
-                MCTSPlayer mctsPlayer = new MCTSPlayer();
-                mctsPlayer.setLevel(50);
-                this.model = mctsPlayer.findNextMove(this.model);
+                Board next;
+                try {
+                    next = search.await();
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+                catch (RuntimeException e) {
+                    // the search failed, the computer player can't move
+                    e.printStackTrace();
+                    Platform.runLater(() -> {
+                        this.view.getValidMove().setText("The computer player failed: " + e);
+                        this.view.getValidMove().setFont(Font.font(20));
+                    });
+                    return;
+                }
+                // the search was cancelled because the game was left
+                if (next == null)
+                    return;
+                this.model = next;
                 System.out.println(this.model);
                 Platform.runLater(() -> {
                     this.model.getPlayers()[1].setPieces(this.model.getCurrPlayer().getPieces());
@@ -66,10 +106,53 @@ public class GameController {
             aiThread.start();
         }
         else {
+            // the game is over, there is no reply to search for
+            mctsPlayer.stopPondering();
             view.updateBoard(model);
         }
     }
 
+    /**
+     * show the progress of the search of the computer player in the view, it is called on the thread of the search handle
+     * <p>
+     *     The last snapshot (when the search is done) is not shown, the move replaces it,
+     *     and a snapshot that reaches the javafx thread after the search ended is dropped.
+     * </p>
+     * @param progress : the snapshot of the search
+     */
+    private void showProgress(SearchProgress progress) {
+        if (progress.done())
+            return;
+        Platform.runLater(() -> {
+            SearchHandle search = this.aiSearch;
+            if (search == null || search.isDone())
+                return;
+            String best = progress.bestMove() == Move.NONE ? "" : ", best " + Move.toString(progress.bestMove());
+            this.view.getValidMove().setText("Thinking: " + progress.iterations() + " iterations" + best);
+            this.view.getValidMove().setFont(Font.font(20));
+        });
+    }
+
+    /**
+     * stop the computer player when the game is left (a new game is started),
+     * its search is cancelled without a move and it stops pondering
+     */
+    public void endGame() throws InterruptedException {
+        if (!isAI)
+            return;
+        if (aiSearch != null) {
+            aiSearch.cancel();
+            // the search thread uses the player until it ends
+            try {
+                aiSearch.await();
+            }
+            catch (RuntimeException e) {
+                // a failed search was already reported by the thread that waits for its move
+            }
+        }
+        mctsPlayer.stopPondering();
+    }
+
     private void updateGUIAfterComputerMove() {
         this.view.getValidMove().setText("Valid Move");
         this.view.getValidMove().setFont(Font.font(20));
@@ -105,8 +188,8 @@ public class GameController {
             this.current_row = row;
             this.current_col = col;
             if (model.validPosition(row, col)) {
-                cells.addAll(model.getAvailablePositions(model.getBoard()[row][col]));
-                view.showAvailableMoves(cells);
+                moveCount = model.generateMoves(model.getBoard()[row][col], moves);
+                view.showAvailableMoves(moves, moveCount);
                 count++;
             }
         }
@@ -115,14 +198,12 @@ public class GameController {
             this.dest_col = col;
             this.dest_row = row;
             // doing the move both in the model and view
-            if (this.model.getCurrPlayer().makeMove(this.model.getBoard(), this.model.getBoard()[this.current_row][this.current_col], this.model.getBoard()[this.dest_row][this.dest_col])) {
+            if (this.model.makeMove(this.model.getBoard()[this.current_row][this.current_col], this.model.getBoard()[this.dest_row][this.dest_col])) {
                 System.out.println(this.model);
                 this.view.getValidMove().setText("Valid Move");
                 this.view.getValidMove().setFont(Font.font(20));
                 this.view.getCellViews()[this.dest_row][this.dest_col].setCell(this.model.getBoard()[this.dest_row][this.dest_col]);
-                if (this.model.getBoard()[this.dest_row][this.dest_col].getPiece().size() == 1)
-                    cells.remove(this.model.getBoard()[this.dest_row][this.dest_col]);
-                view.unShowAvailableMoves(cells);
+                view.unShowAvailableMoves(moves, moveCount);
                 view.updateBoard(this.model);
 
 
@@ -137,10 +218,10 @@ public class GameController {
                 // display in the screen if the current move is not valid
                 this.view.getValidMove().setText(this.model.getCurrPlayer().getNotValid());
                 this.view.getValidMove().setFont(Font.font(20));
-                view.unShowAvailableMoves(cells);
+                view.unShowAvailableMoves(moves, moveCount);
             }
             count = 0;
-            cells = new ArrayList<>();
+            moveCount = 0;
         }
     }
 
@@ -149,7 +230,7 @@ public class GameController {
      */
     public void switchTurn () {
         model.switchTurn();
-        this.view.getTurn().setText(this.getModel().getCurrPlayer().getColor() + " turn");
+        this.view.getTurn().setText(this.getModel().getCurrPlayer().getColorName() + " turn");
         this.view.getTurn().setFont(Font.font(20));
     }
 
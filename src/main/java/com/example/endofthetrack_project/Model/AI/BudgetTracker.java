@@ -0,0 +1,176 @@
+package com.example.endofthetrack_project.Model.AI;
+
+import com.example.endofthetrack_project.Model.Move;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The BudgetTracker class counts the iterations and the new nodes of a single search against its SearchBudget.
+ * <p>
+ *     The counters are atomic so all the threads of a search share one tracker
+ *     and another thread can stop the search at any time (see stop).
+ *     The wall time is checked with System.nanoTime, which does not jump when the clock of the host is set.
+ *     A check has a time complexity of O(1) and allocates nothing.
+ * </p>
+ * <p>
+ *     The search also publishes its root (or the best move of the node pool) to the tracker,
+ *     so its progress can be read from another thread while it runs (see SearchHandle).
+ * </p>
+ */
+final class BudgetTracker {
+
+    private final long maxIterations;
+    private final long maxNodes;
+    // The System.nanoTime at which the search started and at which its time is over (only if hasDeadline)
+    private final long start;
+    private final long deadline;
+    private final boolean hasDeadline;
+    private final AtomicLong iterations;
+    private final AtomicLong nodes;
+    // If the search was stopped before its budget was spent, and if it was stopped without a move
+    private volatile boolean stopped;
+    private volatile boolean cancelled;
+    // The root of the object tree that is searched (null for the node pool),
+    // the best move of the node pool packed with its visit share and the move that was played
+    private volatile Node root;
+    private volatile long poolBest;
+    private volatile int chosenMove;
+
+    /**
+     * Starts tracking a search, the time of the budget starts now.
+     * @param budget the limits of the search
+     */
+    BudgetTracker(SearchBudget budget) {
+        this.maxIterations = budget.getMaxIterations();
+        this.maxNodes = budget.getMaxNodes();
+        this.hasDeadline = budget.getMaxMillis() != SearchBudget.UNLIMITED;
+        this.start = System.nanoTime();
+        this.deadline = start + budget.getMaxMillis() * 1_000_000L;
+        this.iterations = new AtomicLong();
+        this.nodes = new AtomicLong();
+    }
+
+    /**
+     * Checks the budget before an iteration and counts the iteration if it can run.
+     * @return true if the iteration can run, false if a limit was reached and the search should stop
+     */
+    boolean startIteration() {
+        if (stopped) {
+            return false;
+        }
+        if (maxNodes != SearchBudget.UNLIMITED && nodes.get() >= maxNodes) {
+            return false;
+        }
+        if (hasDeadline && System.nanoTime() - deadline >= 0) {
+            return false;
+        }
+        if (maxIterations == SearchBudget.UNLIMITED) {
+            iterations.incrementAndGet();
+            return true;
+        }
+        return iterations.getAndIncrement() < maxIterations;
+    }
+
+    /**
+     * Stops the search, the threads of the search end after the iterations that they are running.
+     */
+    void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Stops the search without a move, it is not played and the player does not ponder after it.
+     */
+    void cancel() {
+        cancelled = true;
+        stopped = true;
+    }
+
+    /**
+     * @return : true if the search was cancelled
+     */
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Counts nodes that the search added to the tree.
+     * @param count the number of new nodes
+     */
+    void addNodes(int count) {
+        nodes.addAndGet(count);
+    }
+
+    /**
+     * @return : the number of nodes that the search added to the tree
+     */
+    long getNodes() {
+        return nodes.get();
+    }
+
+    /**
+     * @return : the number of iterations that the search ran, on all the threads
+     */
+    long getIterations() {
+        long count = iterations.get();
+        // a thread that found the budget spent counted an iteration that it did not run
+        return maxIterations == SearchBudget.UNLIMITED ? count : Math.min(count, maxIterations);
+    }
+
+    /**
+     * @param root : the root of the object tree that the search runs on
+     */
+    void setRoot(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Publishes the best move of the node pool search, the node pool can not be read by another thread.
+     * @param move the packed move with the most visits
+     * @param visitShare the visits of the move divided by the visits of the root
+     */
+    void setPoolBest(int move, double visitShare) {
+        this.poolBest = ((long) move << 32) | (Float.floatToRawIntBits((float) visitShare) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param move : the packed move that the search played
+     */
+    void setChosenMove(int move) {
+        this.chosenMove = move;
+    }
+
+    /**
+     * Takes a snapshot of the search.
+     * <p>
+     *     The visits of the children of an object tree root are read while the search threads update them
+     *     (they are volatile and the child list is published at once), the function has a time complexity of O(n),
+     *     where n is the number of root moves.
+     * </p>
+     * @param done if the search ended, then the best move is the move that was played
+     * @return the progress of the search
+     */
+    SearchProgress getProgress(boolean done) {
+        int bestMove = Move.NONE;
+        double share = 0;
+        Node root = this.root;
+        if (root != null && !root.getChildArray().isEmpty()) {
+            Node best = root.getBestChild();
+            long totalVisits = 0;
+            for (Node child : root.getChildArray()) {
+                totalVisits += child.getState().getVisitCount();
+            }
+            bestMove = best.getState().getMove();
+            share = totalVisits == 0 ? 0 : (double) best.getState().getVisitCount() / totalVisits;
+        }
+        else if (root == null) {
+            long poolBest = this.poolBest;
+            bestMove = (int) (poolBest >>> 32);
+            share = Float.intBitsToFloat((int) poolBest);
+        }
+        if (done && chosenMove != Move.NONE) {
+            bestMove = chosenMove;
+        }
+        return new SearchProgress(getIterations(), bestMove, share, (System.nanoTime() - start) / 1_000_000, done);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.endofthetrack_project.Model.AI;
+
+import com.example.endofthetrack_project.Model.Board;
+
+import java.util.function.Supplier;
+
+/**
+ * MCTSBenchmark class measures the speed of the search of MCTSPlayer
+ * <p>
+ *     It runs a search from the start position with 1, 2, 4 ... threads,
+ *     once with a tree for every thread (root parallelization) and once with a shared tree
+ *     (tree parallelization), and prints the number of iterations per second
+ *     and the speedup over a single thread, so the scaling curves can be compared between hosts.
+ *     Then it runs a single thread search on the node pool (see NodePool).
+ *     The level of the searches is a number of iterations (see SearchBudget.forLevel).
+ *     At the end it plays games between the weighted and the uniform rollout policy
+ *     and between a search with RAVE and one without it, with the same time per move,
+ *     and prints the score of the first player of every match,
+ *     the strength that the setting gets for the same milliseconds of search.
+ * </p>
+ * @author maor
+ */
+public final class MCTSBenchmark {
+
+    // A game that goes on for this many plies is a draw
+    private static final int MAX_GAME_PLIES = 300;
+
+    private MCTSBenchmark() {
+    }
+
+    /**
+     * run the benchmark and print the scaling curve
+     * @param args : the maximum number of threads (the number of cores by default),
+     *             the level of the player (10 by default), the number of games of every match (10 by default)
+     *             and the milliseconds per move of the players of the games (60 by default)
+     */
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int level = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long gameMillis = args.length > 3 ? Long.parseLong(args[3]) : 60;
+        // a first search so the measured runs are not slowed by the warm up of the JIT
+        MCTSPlayer warmUp = new MCTSPlayer();
+        warmUp.setLevel(level);
+        warmUp.findNextMove(new Board());
+        for (boolean sharedTree : new boolean[] {false, true}) {
+            System.out.println(sharedTree ? "tree parallel:" : "root parallel:");
+            double baseline = 0;
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                MCTSPlayer player = new MCTSPlayer();
+                player.setLevel(level);
+                player.setThreads(threads);
+                player.setSharedTree(sharedTree);
+                long start = System.nanoTime();
+                player.findNextMove(new Board());
+                long time = System.nanoTime() - start;
+                double perSecond = player.getIterations() * 1_000_000_000.0 / time;
+                if (threads == 1)
+                    baseline = perSecond;
+                System.out.printf("    threads %d: %d iterations, %.0f iterations/s, speedup %.2f%n",
+                        threads, player.getIterations(), perSecond, perSecond / baseline);
+            }
+        }
+        MCTSPlayer player = new MCTSPlayer();
+        player.setLevel(level);
+        player.setNodePoolCapacity(1 << 20);
+        long start = System.nanoTime();
+        player.findNextMove(new Board());
+        long time = System.nanoTime() - start;
+        System.out.printf("node pool: %d iterations, %.0f iterations/s, %d bytes per node%n",
+                player.getIterations(), player.getIterations() * 1_000_000_000.0 / time, NodePool.BYTES_PER_NODE);
+
+        if (games > 0) {
+            double score = playMatch(() -> newPlayer(gameMillis, WeightedRolloutPolicy.INSTANCE, 0),
+                    () -> newPlayer(gameMillis, UniformRolloutPolicy.INSTANCE, 0), games);
+            System.out.printf("weighted against uniform: %.1f / %d at %d ms per move%n", score, games, gameMillis);
+            score = playMatch(() -> newPlayer(gameMillis, UniformRolloutPolicy.INSTANCE, MCTSPlayer.DEFAULT_RAVE_EQUIVALENCE),
+                    () -> newPlayer(gameMillis, UniformRolloutPolicy.INSTANCE, 0), games);
+            System.out.printf("rave against uct: %.1f / %d at %d ms per move%n", score, games, gameMillis);
+        }
+    }
+
+    // a player of the matches
+    private static MCTSPlayer newPlayer(long millis, RolloutPolicy rolloutPolicy, int raveEquivalence) {
+        MCTSPlayer player = new MCTSPlayer();
+        player.setBudget(SearchBudget.ofMillis(millis));
+        player.setRolloutPolicy(rolloutPolicy);
+        player.setRaveEquivalence(raveEquivalence);
+        return player;
+    }
+
+    /**
+     * play games between two players, the first player plays white in half of the games
+     * @param first : creates the player to score (a new one for every game)
+     * @param second : creates the player to play against
+     * @param games : the number of games
+     * @return : the score of the first player (1 for a win and 1/2 for a draw)
+     */
+    public static double playMatch(Supplier<MCTSPlayer> first, Supplier<MCTSPlayer> second, int games) {
+        double score = 0;
+        for (int game = 0; game < games; game++) {
+            // the first player is white (players[0]) in the even games
+            MCTSPlayer[] players = new MCTSPlayer[2];
+            players[game % 2] = first.get();
+            players[1 - game % 2] = second.get();
+            Board board = new Board();
+            for (int ply = 0; ply < MAX_GAME_PLIES && !board.isGameOver(); ply++) {
+                board = players[board.getCurrPlayer().getId() - 1].findNextMove(board);
+                if (!board.isGameOver())
+                    board.switchTurn();
+            }
+            int firstId = game % 2 + 1;
+            if (board.checkStatus() == firstId)
+                score++;
+            else if (!board.isGameOver())
+                score += 0.5;
+        }
+        return score;
+    }
+}
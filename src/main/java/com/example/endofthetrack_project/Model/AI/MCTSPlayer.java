@@ -1,13 +1,16 @@
 package com.example.endofthetrack_project.Model.AI;
 
+import com.example.endofthetrack_project.Model.BitBoard;
 import com.example.endofthetrack_project.Model.Board;
-import com.example.endofthetrack_project.Model.Cell;
-import com.example.endofthetrack_project.Model.Player;
+import com.example.endofthetrack_project.Model.Move;
+import com.example.endofthetrack_project.Model.Position;
+import com.example.endofthetrack_project.Model.Threats;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 
 /**
@@ -18,17 +21,67 @@ import java.util.Random;
 public class MCTSPlayer {
 
     // Constant representing the score assigned to a win state
-    private static final int WIN_SCORE = 10;
+    static final int WIN_SCORE = 10;
+    // The default maximum number of plies of a playout, random playouts from the start take about 340 plies
+    private static final int DEFAULT_MAX_PLAYOUT_PLIES = 400;
+    /**
+     * The default RAVE equivalence, the AMAF statistics of a node weigh as much as its own after this many visits
+     */
+    public static final int DEFAULT_RAVE_EQUIVALENCE = 300;
+    // The node pool search publishes its best move every this many iterations (a power of two)
+    private static final int POOL_PROGRESS_ITERATIONS = 1024;
+    // The maximum number of nodes that pondering adds to the tree, so a long think of the opponent does not fill the memory
+    private static final int MAX_PONDER_NODES = 500_000;
+    // The number of distinct packed moves, the AMAF key of a move is (player - 1) * MOVE_KEYS + move
+    private static final int MOVE_KEYS = Move.encode(BitBoard.SQUARES - 1, BitBoard.SQUARES - 1, true) + 1;
     // The level of the MCTS player
     private int level;
+    // The limits of a search (null for the budget of the level)
+    private SearchBudget budget;
     // The ID of the opponent player
     private int opponent;
+    // The search tree, kept between moves so its statistics can be reused
+    private Tree tree;
+    // The number of threads that search from the root
+    private int threads;
+    // If the threads search one shared tree (true) or a tree each (false)
+    private boolean sharedTree;
+    // The maximum number of plies of a playout before it is evaluated (Playout.NO_LIMIT for none)
+    private int maxPlayoutPlies;
+    // The policy that chooses the moves of the playouts
+    private RolloutPolicy rolloutPolicy;
+    // The number of visits at which the AMAF statistics of a node weigh as much as its own (0 for no RAVE)
+    private int raveEquivalence;
+    // The number of iterations done by the last search, on all the threads
+    private int iterations;
+    // The table of the statistics of positions that is shared by the nodes of the object tree (null for none)
+    private TranspositionTable transpositionTable;
+    // The node pool that is searched instead of the object tree (null for the object tree)
+    private NodePool nodePool;
+    // The position after the move that was chosen from the node pool, the position of its root
+    private Position poolPosition;
+    // If the player searches its kept tree on the time of the opponent
+    private boolean pondering;
+    // The search that runs on the time of the opponent and its budget (null when none runs)
+    private Thread ponderThread;
+    private BudgetTracker ponderBudget;
+    // The number of iterations of the last pondering, written by the ponder thread before it ends
+    private int ponderIterations;
+    // The number of searches that followed a pondering, how many found the reply of the opponent in the tree
+    // and the visits of the subtrees that were kept
+    private int ponderCount;
+    private int ponderHits;
+    private long ponderReusedVisits;
 
     /**
      * Constructs a new MCTSPlayer object with a default level of 3.
      */
     public MCTSPlayer() {
         this.level = 3;
+        this.threads = 1;
+        this.maxPlayoutPlies = DEFAULT_MAX_PLAYOUT_PLIES;
+        this.rolloutPolicy = UniformRolloutPolicy.INSTANCE;
+        this.raveEquivalence = DEFAULT_RAVE_EQUIVALENCE;
     }
 
     /**
@@ -41,7 +94,8 @@ public class MCTSPlayer {
     }
 
     /**
-     * Sets the level of the MCTS player.
+     * Sets the level of the MCTS player, a level is a number of iterations (see SearchBudget.forLevel)
+     * that is searched when no budget is set.
      *
      * @param level The new level of the MCTS player
      */
@@ -50,20 +104,279 @@ public class MCTSPlayer {
     }
 
     /**
-     * Calculates the time limit for the current level of the MCTS player.
+     * Returns the limits of a search.
+     *
+     * @return The budget that was set, or the budget of the level if none was set
+     */
+    public SearchBudget getBudget() {
+        return budget != null ? budget : SearchBudget.forLevel(level);
+    }
+
+    /**
+     * Sets the limits of a search: a maximum number of iterations, of new tree nodes, of wall time or a combination of them.
+     * The iterations and nodes are counted over all the search threads.
+     *
+     * @param budget The limits of a search, or null to search the budget of the level
+     */
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Returns the number of threads that search from the root.
+     *
+     * @return The number of search threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of threads that search from the root.
+     * With more than one thread every thread searches its own tree (root parallelization)
+     * and the statistics of the root moves are merged at the end of the search.
+     *
+     * @param threads The number of search threads (a value below 1 is taken as 1)
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Returns if the search threads share one tree.
+     *
+     * @return true for tree parallelization, false for root parallelization
+     */
+    public boolean isSharedTree() {
+        return sharedTree;
+    }
+
+    /**
+     * Sets if the search threads share one tree.
+     * With a shared tree (tree parallelization) all the threads run the iterations on the kept tree
+     * and a virtual loss spreads them over different branches,
+     * otherwise every thread searches its own tree (root parallelization).
+     * The setting has no effect with a single thread.
+     *
+     * @param sharedTree true for tree parallelization, false for root parallelization
+     */
+    public void setSharedTree(boolean sharedTree) {
+        this.sharedTree = sharedTree;
+    }
+
+    /**
+     * Returns the maximum number of plies of a playout.
+     *
+     * @return The maximum number of plies, or Playout.NO_LIMIT if playouts are never cut
+     */
+    public int getMaxPlayoutPlies() {
+        return maxPlayoutPlies;
+    }
+
+    /**
+     * Sets the maximum number of plies of a playout, a playout that reaches it is cut
+     * and its result is a static evaluation of the position (see Playout.evaluate),
+     * so a single long playout can not stall an iteration.
      *
-     * @return The time limit in milliseconds for the current level of the MCTS player
+     * @param maxPlayoutPlies The maximum number of plies, or Playout.NO_LIMIT (0) to never cut playouts
      */
-    private int getMillisForCurrentLevel() {
-        return 2 * (this.level - 1) + 1;
+    public void setMaxPlayoutPlies(int maxPlayoutPlies) {
+        this.maxPlayoutPlies = Math.max(Playout.NO_LIMIT, maxPlayoutPlies);
+    }
+
+    /**
+     * Returns the policy that chooses the moves of the playouts.
+     *
+     * @return The rollout policy
+     */
+    public RolloutPolicy getRolloutPolicy() {
+        return rolloutPolicy;
+    }
+
+    /**
+     * Sets the policy that chooses the moves of the playouts, it is used from the next search.
+     *
+     * @param rolloutPolicy The rollout policy, for example UniformRolloutPolicy.INSTANCE or WeightedRolloutPolicy.INSTANCE
+     */
+    public void setRolloutPolicy(RolloutPolicy rolloutPolicy) {
+        this.rolloutPolicy = rolloutPolicy;
+    }
+
+    /**
+     * Returns the RAVE equivalence of the search.
+     *
+     * @return The number of visits at which the AMAF and the UCT statistics of a node have the same weight, 0 if RAVE is off
+     */
+    public int getRaveEquivalence() {
+        return raveEquivalence;
+    }
+
+    /**
+     * Sets the RAVE equivalence of the search (Rapid Action Value Estimation).
+     * With RAVE every simulation updates the all moves as first (AMAF) statistics of the children
+     * of every node on its path whose move was played later in the simulation by the same player,
+     * and the UCT value of a node blends them in with a weight that decays as the node gets visits (see UCT.uctValue).
+     * RAVE is used by the object tree search, not by the node pool search.
+     *
+     * @param raveEquivalence The number of visits at which both statistics have the same weight
+     *                        (DEFAULT_RAVE_EQUIVALENCE by default), 0 to turn RAVE off
+     */
+    public void setRaveEquivalence(int raveEquivalence) {
+        this.raveEquivalence = Math.max(0, raveEquivalence);
+    }
+
+    /**
+     * Returns the memory of the transposition table.
+     *
+     * @return The memory of the table in megabytes, or 0 if there is no table
+     */
+    public int getTranspositionTableSize() {
+        return transpositionTable == null ? 0 : (int) ((long) transpositionTable.getCapacity() * 2 * Long.BYTES >> 20);
+    }
+
+    /**
+     * Sets the memory of the transposition table that is shared by all the nodes (and threads) of the search,
+     * so nodes of the same position share their statistics in the UCT selection.
+     * The table is kept between moves, it is not used by the node pool search.
+     *
+     * @param megabytes The memory of the table in megabytes, 0 for no table
+     */
+    public void setTranspositionTableSize(int megabytes) {
+        this.transpositionTable = megabytes > 0 ? new TranspositionTable(megabytes) : null;
+    }
+
+    /**
+     * Returns the capacity of the node pool that is searched instead of the object tree.
+     *
+     * @return The number of nodes of the pool, or 0 if the object tree is searched
+     */
+    public int getNodePoolCapacity() {
+        return nodePool == null ? 0 : nodePool.getCapacity();
+    }
+
+    /**
+     * Sets the capacity of the node pool that is searched instead of the object tree.
+     * The pool is allocated once and is searched by a single thread, the number of threads has no effect on it.
+     *
+     * @param capacity The number of nodes of the pool, 0 to search the object tree
+     */
+    public void setNodePoolCapacity(int capacity) {
+        if (capacity <= 0) {
+            this.nodePool = null;
+        }
+        else {
+            // leave room to expand a root when half of the pool is still in use by a reused root
+            this.nodePool = new NodePool(Math.max(capacity, 4 * Move.MAX_MOVES));
+        }
+        this.poolPosition = null;
+    }
+
+    /**
+     * Returns if the player searches its tree on the time of the opponent.
+     *
+     * @return true if pondering is on
+     */
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     * Sets if the player searches its tree on the time of the opponent (pondering).
+     * With pondering, findNextMove starts a background search of the subtree of the chosen move before it returns,
+     * and the next findNextMove stops it and keeps the subtree of the reply of the opponent with all its visits.
+     * The background search runs on all the threads in a shared tree and stops when it added MAX_PONDER_NODES nodes.
+     * Pondering is not done on the node pool.
+     *
+     * @param pondering true to ponder, false to stop pondering
+     */
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+        if (!pondering) {
+            stopPondering();
+        }
+    }
+
+    /**
+     * Stops the search on the time of the opponent, if one runs, and waits for it to end.
+     * It is called at the start of findNextMove and should be called when the game is over.
+     *
+     * @return true if a search was stopped, false if none was running
+     */
+    public boolean stopPondering() {
+        if (ponderThread == null) {
+            return false;
+        }
+        ponderBudget.stop();
+        if (joinUninterruptibly(ponderThread)) {
+            Thread.currentThread().interrupt();
+        }
+        ponderThread = null;
+        ponderBudget = null;
+        return true;
+    }
+
+    /**
+     * Returns the number of searches that followed a pondering.
+     *
+     * @return The number of ponder hits and misses
+     */
+    public int getPonderCount() {
+        return ponderCount;
+    }
+
+    /**
+     * Returns the number of searches whose position was in the pondered tree (the reply of the opponent was searched).
+     *
+     * @return The number of ponder hits
+     */
+    public int getPonderHits() {
+        return ponderHits;
+    }
+
+    /**
+     * Returns the part of the searches that followed a pondering whose position was in the pondered tree.
+     *
+     * @return The ponder hit rate, between 0 and 1 (0 if there was no pondering)
+     */
+    public double getPonderHitRate() {
+        return ponderCount == 0 ? 0 : (double) ponderHits / ponderCount;
+    }
+
+    /**
+     * Returns the visits of all the subtrees that were kept on a ponder hit.
+     *
+     * @return The reused visits of the ponder hits
+     */
+    public long getPonderReusedVisits() {
+        return ponderReusedVisits;
+    }
+
+    /**
+     * Returns the number of iterations of the last pondering, once it was stopped.
+     *
+     * @return The iterations that were done on the time of the opponent
+     */
+    public int getPonderIterations() {
+        return ponderIterations;
+    }
+
+    /**
+     * Returns the number of iterations done by the last search, summed over all the threads.
+     *
+     * @return The number of iterations of the last search
+     */
+    public int getIterations() {
+        return iterations;
     }
 
     /**
      * Finds the next move for the AI player based on the given board state.
      * <p>
      *     The function initializes a search tree with the root node representing the current board state and the opponent as the current player.
-     *     It sets a time limit for the search and performs the MCTS search until
-     *     the time limit is reached. The algorithm consists of four parts:
+     *     If the tree of the last move has a child for the reply of the opponent, that child becomes the root
+     *     and keeps its visits and scores, so the search goes on from where it stopped.
+     *     It performs the MCTS search until a limit of the budget (iterations, new nodes or time, see getBudget)
+     *     is reached. The algorithm consists of four parts:
      *
      *     Selection: Traverse the tree from the root to a leaf node using the UCT algorithm
      *     to determine the most promising node to explore next.
@@ -77,131 +390,500 @@ public class MCTSPlayer {
      *     The function returns the board state representing the next move for the AI player.
      *     The memory efficiency of the function is good since it only stores
      *     the necessary information in the search tree.
-     *     The runtime efficiency depends on the size of the search tree and the time limit
+     *     The runtime efficiency depends on the size of the search tree and the budget
      *     set for the search.
      * </p>
      * @param board The current board state
      * @return The board state representing the next move for the AI player
      */
     public Board findNextMove(Board board) {
-        int count = 0;
-        // Set the time limit for the search
-        long start = System.currentTimeMillis();
-        long end = start + 60L * getMillisForCurrentLevel();
+        return findNextMove(board, new BudgetTracker(getBudget()));
+    }
+
+    /**
+     * Starts a search for the next move in the background and returns at once (see findNextMove).
+     * <p>
+     *     The returned handle can stop the search and play the best move so far, cancel it,
+     *     read its progress (the iterations, the best move and its visit share) at any time and wait for its result.
+     *     The search runs until the budget is spent or until it is stopped,
+     *     with a budget that has no limit (see setBudget) it runs until it is stopped.
+     *     The player must not be used by another search until the handle is done.
+     * </p>
+     * @param board The current board state, it is not changed
+     * @param listener Gets a snapshot of the progress every interval and when the search is done, or null
+     * @param intervalMillis The time between two snapshots in milliseconds
+     * @return The handle of the search
+     */
+    public SearchHandle startSearch(Board board, Consumer<SearchProgress> listener, long intervalMillis) {
+        Board copy = new Board(board);
+        BudgetTracker tracker = new BudgetTracker(getBudget());
+        SearchHandle handle = new SearchHandle(() -> findNextMove(copy, tracker), tracker, listener, intervalMillis);
+        handle.start();
+        return handle;
+    }
+
+    /**
+     * Finds the next move with the given budget, the search stops when the tracker says so.
+     * @param board The current board state
+     * @param tracker The budget of the search, the root of the search is published to it
+     * @return The board state representing the next move for the AI player
+     */
+    private Board findNextMove(Board board, BudgetTracker tracker) {
+        iterations = 0;
+
+        // Stop the search on the time of the opponent, its tree is reused below
+        boolean pondered = stopPondering();
 
         // Initialize the search tree
         int playerNum = board.getCurrPlayer().getId();
         opponent = 3 - playerNum;
-        Tree tree = new Tree();
-        Node rootNode = tree.getRoot();
-        rootNode.getState().setBoard(board);
-        rootNode.getState().setPlayerNum(opponent);
+        if (nodePool != null) {
+            return findNextMoveInPool(board, tracker);
+        }
+        poolPosition = null;
+        Node rootNode = reuseRoot(board.toPosition());
+        if (pondered) {
+            ponderCount++;
+            if (rootNode != null) {
+                ponderHits++;
+                ponderReusedVisits += rootNode.getState().getVisitCount();
+            }
+        }
+        if (rootNode == null) {
+            tree = new Tree();
+            rootNode = tree.getRoot();
+            rootNode.getState().setPosition(board.toPosition());
+            rootNode.getState().setPlayerNum(opponent);
+        }
+        tracker.setRoot(rootNode);
+        // A reused root may already have its children, the expansion proves the moves that win at once
+        // and the moves after which the opponent can pass to its goal row, so the search only weighs the moves that stop its threat
+        if (rootNode.getChildArray().isEmpty()) {
+            expand(rootNode);
+        }
 
         Node winnerNode = null;
-        boolean canLoseNextMove = false;
-        boolean flag = false;
-
-        if (canOpponentWinNextMove(rootNode.getState().getBoard())) {
-            List<Node> availableNodes = new ArrayList<>();
-            canLoseNextMove = true;
-            expand(rootNode);
-            for (Node node : rootNode.getChildArray()) {
-                State state = new State(node.getState());
-                if (!canOpponentWinNextMove(state.getBoard())) {
-                    availableNodes.add(node);
-                }
+        if (rootNode.getState().getProven() == State.PROVEN_LOSS) {
+            // The opponent moved into a proven loss, the winning move is played without a search
+            winnerNode = rootNode.getBestChild();
+        }
+        if (winnerNode == null) {
+            // Perform the MCTS search until the budget is spent
+            if (threads > 1 && sharedTree) {
+                iterations = searchTreeParallel(rootNode, tracker);
             }
-            rootNode.getChildArray().clear();
-            System.out.println("times: " + count);
-            if (availableNodes.size() > 0) {
-                Random random = new Random();
-                int randomIndex = random.nextInt(availableNodes.size());
-                winnerNode = availableNodes.get(randomIndex);
+            else if (threads > 1) {
+                iterations = searchRootParallel(rootNode, tracker);
             }
             else {
-                flag = true;
+                iterations = search(rootNode, tracker, false);
             }
+            System.out.println("times: " + iterations);
         }
-        if (winnerNode == null || flag){
-            // Perform the MCTS search until the time limit is reached
-            while (System.currentTimeMillis() < end) {
-                // Part 1 - Selection
-                Node selectedNode = selectPromisingNode(rootNode);
-                // Part 2 - Expansion
-                if (selectedNode.getState().getBoard().checkStatus() == Board.IN_PROGRESS) {
-                    expand(selectedNode);
-                }
-                // Part 3 - Simulation
-                Node nodeToExplore = selectedNode;
-                if (selectedNode.getChildArray().size() > 0) {
-                    nodeToExplore = selectedNode.getRandomChildNode();
-                }
-                nodeToExplore.getState().getBoard().getPlayers()[1]
-                        .setPieces(nodeToExplore.getState().getBoard().getCurrPlayer().getPieces());
 
-                int result = simulateGame(nodeToExplore);
-                // Part 4 - Back Propagation
-                backPropagation(nodeToExplore, result);
-                count++;
-            }
-            System.out.println("times: " + count);
+
+
+        Node nodeToReturn = winnerNode;
+        // Select a proven win or the child node with the highest visit count that is not a proven loss
+        if (nodeToReturn == null) {
+            nodeToReturn = rootNode.getBestChild();
         }
+        tracker.setChosenMove(nodeToReturn.getState().getMove());
+        // Keep the subtree of the chosen move for the next search
+        nodeToReturn.setParent(null);
+        tree.setRoot(nodeToReturn);
+        // Make the chosen move on a copy of the given board
+        Board boardToReturn = new Board(board);
+        boardToReturn.makeMove(nodeToReturn.getState().getMove());
+        if (pondering && !boardToReturn.isGameOver() && !tracker.isCancelled()) {
+            startPondering(nodeToReturn);
+        }
+        return boardToReturn;
+    }
 
+    /**
+     * Finds the next move on the node pool, no object tree is built.
+     * <p>
+     *     The root is the kept subtree of the reply of the opponent if it is in the pool, otherwise the pool is reset.
+     *     The root is expanded first, so a winning move proves it and is played without a search.
+     * </p>
+     * @param board The current board state
+     * @param tracker The budget of the search
+     * @return The board state representing the next move for the AI player
+     */
+    private Board findNextMoveInPool(Board board, BudgetTracker tracker) {
+        tree = null;
+        tracker.setRoot(null);
+        Position position = board.toPosition();
+        int root = reusePoolRoot(position);
+        if (root == NodePool.NONE) {
+            root = nodePool.reset(opponent);
+        }
+        if (nodePool.getChildCount(root) == 0) {
+            expandPool(root, position.toBitBoard(), new int[Move.MAX_MOVES], tracker);
+        }
+        // If the opponent moved into a proven loss, the winning move is played without a search
+        if (nodePool.getProven(root) != State.PROVEN_LOSS) {
+            // Perform the MCTS search on the node pool until the budget is spent
+            iterations = searchPool(root, position, tracker);
+            System.out.println("times: " + iterations);
+        }
+        // Keep the subtree of the chosen move for the next search
+        int chosen = nodePool.getBestChild(root);
+        int move = nodePool.getMove(chosen);
+        tracker.setChosenMove(move);
+        nodePool.setRoot(chosen);
+        Board boardToReturn = new Board(board);
+        boardToReturn.makeMove(move);
+        BitBoard bitBoard = boardToReturn.toBitBoard();
+        bitBoard.switchTurn();
+        poolPosition = Position.of(bitBoard);
+        return boardToReturn;
+    }
 
+    /**
+     * Starts a background search of the kept tree on the time of the opponent.
+     * <p>
+     *     The search runs on all the threads in the shared tree (with a virtual loss when there is more than one)
+     *     until stopPondering or until it added MAX_PONDER_NODES nodes,
+     *     every reply of the opponent that it visits keeps its subtree for the next search.
+     * </p>
+     * @param rootNode The root of the kept tree, the position after the chosen move
+     */
+    private void startPondering(Node rootNode) {
+        BudgetTracker budget = new BudgetTracker(SearchBudget.ofNodes(MAX_PONDER_NODES));
+        ponderIterations = 0;
+        ponderBudget = budget;
+        ponderThread = new Thread(() -> ponderIterations =
+                threads > 1 ? searchTreeParallel(rootNode, budget) : search(rootNode, budget, false));
+        ponderThread.setDaemon(true);
+        ponderThread.start();
+    }
 
-        Board boardToReturn = null;
-        // Select the child node with the highest score as the next move
-        if (!canLoseNextMove) {
-            if (winnerNode != null) {
-                tree.setRoot(winnerNode);
-                boardToReturn = winnerNode.getState().getBoard();
-            } else {
-                // Handle the case when winnerNode is null
-                Node childWithMaxScore = rootNode.getChildWithMaxScore();
-                if (childWithMaxScore != null) {
-                    tree.setRoot(childWithMaxScore);
-                    boardToReturn = childWithMaxScore.getState().getBoard();
-                }
+
+
+    /**
+     * Runs MCTS iterations on the tree of the given root until the budget is spent.
+     *
+     * With a virtual loss every node on the selected path gets a virtual loss until
+     * the result of the iteration is back propagated, so other threads that search
+     * the same tree prefer other branches.
+     *
+     * @param rootNode The root node of the tree to search
+     * @param budget The budget of the search, shared by all its threads
+     * @param virtualLoss If the selected path gets a virtual loss (for a shared tree)
+     * @return The number of iterations that were done
+     */
+    private int search(Node rootNode, BudgetTracker budget, boolean virtualLoss) {
+        // Every search thread plays its simulations on its own playout engine
+        Playout playout = new Playout(maxPlayoutPlies, rolloutPolicy);
+        // The iteration in which every AMAF key was last played, so the set of played moves is never cleared
+        int[] amafStamps = raveEquivalence > 0 ? new int[2 * MOVE_KEYS] : null;
+        int count = 0;
+        // A proven root needs no more iterations
+        while (!rootNode.getState().isProven() && budget.startIteration()) {
+            // Part 1 - Selection
+            Node selectedNode = selectPromisingNode(rootNode, virtualLoss);
+            // Part 2 - Expansion
+            if (!selectedNode.getState().isProven() && selectedNode.getState().checkStatus() == Board.IN_PROGRESS) {
+                budget.addNodes(expand(selectedNode));
+            }
+            // Part 3 - Simulation
+            Node nodeToExplore = selectedNode;
+            if (selectedNode.getChildArray().size() > 0) {
+                nodeToExplore = selectedNode.getRandomChildNode();
+            }
+
+            boolean terminal = nodeToExplore.getState().isProven() || nodeToExplore.getState().checkStatus() != Board.IN_PROGRESS;
+            double result = simulateGame(nodeToExplore, playout);
+            // Part 4 - Back Propagation
+            backPropagation(nodeToExplore, result);
+            if (amafStamps != null) {
+                updateAmaf(nodeToExplore, playout, terminal ? 0 : playout.getMoveCount(), result, amafStamps, count + 1);
             }
+            if (virtualLoss) {
+                removeVirtualLoss(selectedNode);
+            }
+            count++;
         }
-        else {
-            if (winnerNode != null) {
-                tree.setRoot(winnerNode);
-                boardToReturn = winnerNode.getState().getBoard();
-            } else {
-                // Handle the case when winnerNode is null
-                Node childWithMaxScore = rootNode.getChildWithMaxScore();
-                if (childWithMaxScore != null) {
-                    tree.setRoot(childWithMaxScore);
-                    boardToReturn = childWithMaxScore.getState().getBoard();
+        return count;
+    }
+
+    /**
+     * Runs the search on several threads, every thread on its own tree (root parallelization).
+     * <p>
+     *     The calling thread searches the given (possibly reused) tree and every other thread
+     *     searches a new tree from a copy of the root, so the threads share no node
+     *     and every thread draws its random numbers from its own generator (ThreadLocalRandom).
+     *     When the budget is spent the visits and scores of every root move
+     *     are added to the child of the same move in the given tree,
+     *     so the final choice of getChildWithMaxScore is made on the merged statistics.
+     * </p>
+     * <p>
+     *     The memory complexity is the size of all the trees, the merge has a time complexity
+     *     of O(t * n^2), where t is the number of threads and n is the number of root moves.
+     * </p>
+     * @param rootNode The root node of the kept tree
+     * @param budget The budget of the search, shared by all the threads
+     * @return The number of iterations that were done on all the threads
+     */
+    private int searchRootParallel(Node rootNode, BudgetTracker budget) {
+        Node[] roots = new Node[threads];
+        roots[0] = rootNode;
+        for (int i = 1; i < threads; i++) {
+            State state = new State(rootNode.getState());
+            state.setVisitCount(0);
+            state.setWinScore(0);
+            roots[i] = new Node(state, null, new ArrayList<>());
+        }
+        int count = runWorkers(roots, budget, false);
+
+        // Merge the statistics of the root moves into the kept tree
+        if (rootNode.getChildArray().isEmpty()) {
+            expand(rootNode);
+        }
+        for (int i = 1; i < threads; i++) {
+            rootNode.getState().merge(roots[i].getState());
+            for (Node child : roots[i].getChildArray()) {
+                for (Node mainChild : rootNode.getChildArray()) {
+                    if (mainChild.getState().getMove() == child.getState().getMove()) {
+                        mainChild.getState().merge(child.getState());
+                        break;
+                    }
                 }
             }
         }
-        return boardToReturn;
+        return count;
     }
 
+    /**
+     * Runs the search on several threads that all share the given tree (tree parallelization).
+     * <p>
+     *     The statistics of the nodes are updated atomically, a new child list is published
+     *     with a compare and set (see Node.publishChildArray) so no lock is taken,
+     *     and the virtual loss on the selected path makes the threads spread over different branches.
+     *     All the iterations end up in the kept tree, so they are all reused on the next move.
+     * </p>
+     * @param rootNode The root node of the kept tree
+     * @param budget The budget of the search, shared by all the threads
+     * @return The number of iterations that were done on all the threads
+     */
+    private int searchTreeParallel(Node rootNode, BudgetTracker budget) {
+        Node[] roots = new Node[threads];
+        Arrays.fill(roots, rootNode);
+        return runWorkers(roots, budget, true);
+    }
 
+    /**
+     * Searches from every root on a thread of its own, the calling thread searches the first root,
+     * and waits for all the threads to finish.
+     * @param roots The root node that every thread searches
+     * @param budget The budget of the search, shared by all the threads
+     * @param virtualLoss If the threads add a virtual loss on the selected path
+     * @return The number of iterations that were done on all the threads
+     */
+    private int runWorkers(Node[] roots, BudgetTracker budget, boolean virtualLoss) {
+        int[] counts = new int[roots.length];
+        Thread[] workers = new Thread[roots.length];
+        for (int i = 1; i < roots.length; i++) {
+            int index = i;
+            workers[i] = new Thread(() -> counts[index] = search(roots[index], budget, virtualLoss));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        counts[0] = search(roots[0], budget, virtualLoss);
 
-    private boolean canOpponentWinNextMove(Board board) {
-        board.switchTurn();
-        int otherPlayer = board.getCurrPlayer().getId();
-        for (Cell cell : board.getPlayers()[otherPlayer - 1].getPieces()) {
-            if (cell.getPiece().size() == 2) {
-                List<Cell> availablePositions = board.getAvailablePositions(cell);
-                for (Cell position : availablePositions) {
-                    if (board.getDistanceToGoal(position, otherPlayer) == 0) {
-                        board.switchTurn();
-                        return true;
-                    }
+        // Wait for all the workers before their trees are read
+        boolean interrupted = false;
+        for (int i = 1; i < roots.length; i++) {
+            interrupted |= joinUninterruptibly(workers[i]);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        int count = 0;
+        for (int c : counts) {
+            count += c;
+        }
+        return count;
+    }
+
+    /**
+     * Waits for a thread to end, an interrupt of the waiting thread does not stop the wait.
+     * @param thread The thread to wait for
+     * @return true if the waiting thread was interrupted (the caller restores the interrupt), false otherwise
+     */
+    private static boolean joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                return interrupted;
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+    }
+
+    /**
+     * Runs MCTS iterations on the node pool until the budget is spent.
+     * <p>
+     *     The moves of the selected path are made on a single bitboard and taken back
+     *     during the back propagation, an expansion stores only the moves of the node,
+     *     so an iteration allocates nothing in the tree.
+     *     If the pool is full a selected leaf is not expanded and only simulated.
+     * </p>
+     * @param root The index of the root in the pool, it is expanded
+     * @param rootPosition The position of the board
+     * @param budget The budget of the search, shared by all the threads
+     * @return The number of iterations that were done
+     */
+    private int searchPool(int root, Position rootPosition, BudgetTracker budget) {
+        BitBoard bitBoard = rootPosition.toBitBoard();
+        int[] moves = new int[Move.MAX_MOVES];
+        Playout playout = new Playout(maxPlayoutPlies, rolloutPolicy);
+        int count = 0;
+        // A proven root needs no more iterations
+        while (nodePool.getProven(root) == State.UNPROVEN && budget.startIteration()) {
+            // Part 1 - Selection
+            int node = root;
+            while (nodePool.getChildCount(node) != 0 && nodePool.getProven(node) == State.UNPROVEN) {
+                node = nodePool.findBestChildWithUCT(node);
+                bitBoard.makeMove(nodePool.getMove(node));
+                bitBoard.switchTurn();
+            }
+            // Part 2 - Expansion
+            if (nodePool.getProven(node) == State.UNPROVEN && !bitBoard.isGameOver()
+                    && expandPool(node, bitBoard, moves, budget)) {
+                node = nodePool.getFirstChild(node) + ThreadLocalRandom.current().nextInt(nodePool.getChildCount(node));
+                bitBoard.makeMove(nodePool.getMove(node));
+                bitBoard.switchTurn();
+            }
+            // Part 3 - Simulation
+            double result;
+            int proven = nodePool.getProven(node);
+            if (proven != State.UNPROVEN) {
+                // The result of a proven node is known
+                int playerNum = nodePool.getPlayerNum(node);
+                result = Playout.reward(proven == State.PROVEN_WIN ? playerNum : 3 - playerNum);
+            }
+            else if (bitBoard.isGameOver()) {
+                nodePool.prove(node, State.PROVEN_WIN);
+                result = Playout.reward(bitBoard.getWinner());
+            }
+            else {
+                result = playout.play(bitBoard);
+            }
+            // Part 4 - Back Propagation
+            for (int n = node; n != NodePool.NONE; n = nodePool.getParent(n)) {
+                nodePool.addResult(n, score(nodePool.getPlayerNum(n), result));
+                if (n != root) {
+                    bitBoard.switchTurn();
+                    bitBoard.unmakeMove(nodePool.getMove(n));
                 }
             }
+            count++;
+            if (count % POOL_PROGRESS_ITERATIONS == 0) {
+                publishPoolBest(root, budget);
+            }
         }
-        board.switchTurn();
-        return false;
+        publishPoolBest(root, budget);
+        return count;
     }
 
+    /**
+     * Expands a node of the node pool with the moves of the position of the bitboard
+     * and proves the children whose move wins the game, and those after whose move the opponent can win at once.
+     * @param node The index of the node
+     * @param bitBoard The position of the node, the player to move in it is to move
+     * @param moves A scratch array for the moves
+     * @param budget The budget of the search, the new nodes are counted
+     * @return false if the pool is full (the node stays a leaf), true otherwise
+     */
+    private boolean expandPool(int node, BitBoard bitBoard, int[] moves, BudgetTracker budget) {
+        if (!nodePool.expand(node, moves, bitBoard.generateMoves(moves))) {
+            return false;
+        }
+        budget.addNodes(nodePool.getChildCount(node));
+        for (int child = nodePool.getFirstChild(node), last = child + nodePool.getChildCount(node); child < last; child++) {
+            if (winsGame(nodePool.getPlayerNum(child), nodePool.getMove(child))) {
+                nodePool.prove(child, State.PROVEN_WIN);
+            }
+            else if (Threats.allowsWinNextMove(bitBoard, nodePool.getMove(child))) {
+                nodePool.prove(child, State.PROVEN_LOSS);
+            }
+        }
+        return true;
+    }
 
+    /**
+     * Publishes the root move of the node pool that would be played (see NodePool.getBestChild) to the budget of the search,
+     * so its progress can be read by other threads (the pool itself is only read by the search thread).
+     * @param root The index of the root of the pool
+     * @param budget The budget of the search
+     */
+    private void publishPoolBest(int root, BudgetTracker budget) {
+        if (nodePool.getChildCount(root) > 0 && nodePool.getVisits(root) > 0) {
+            int best = nodePool.getBestChild(root);
+            budget.setPoolBest(nodePool.getMove(best), (double) nodePool.getVisits(best) / nodePool.getVisits(root));
+        }
+    }
 
+    /**
+     * Finds the node of the given position among the children of the root of the node pool
+     * (the replies of the opponent to the last move of this player) and makes it the new root.
+     * <p>
+     *     The root is not reused when more than half of the pool is in use,
+     *     the nodes that are not under the new root are only freed when the pool is reset.
+     * </p>
+     * @param position The position of the board after the reply of the opponent
+     * @return The index of the new root, or NodePool.NONE if the position is not in the pool
+     */
+    private int reusePoolRoot(Position position) {
+        if (poolPosition == null || nodePool.getSize() > nodePool.getCapacity() / 2) {
+            return NodePool.NONE;
+        }
+        int root = nodePool.getRoot();
+        BitBoard bitBoard = poolPosition.toBitBoard();
+        for (int child = nodePool.getFirstChild(root), last = child + nodePool.getChildCount(root); child < last; child++) {
+            bitBoard.makeMove(nodePool.getMove(child));
+            bitBoard.switchTurn();
+            boolean found = Position.of(bitBoard).equals(position);
+            bitBoard.switchTurn();
+            bitBoard.unmakeMove(nodePool.getMove(child));
+            if (found) {
+                nodePool.setRoot(child);
+                return child;
+            }
+        }
+        return NodePool.NONE;
+    }
+
+    /**
+     * Finds the node of the given position among the children of the root of the kept tree
+     * (the replies of the opponent to the last move of this player) and makes it the new root.
+     * <p>
+     *     The node is detached from its parent so the rest of the old tree can be collected.
+     *     The function has a time complexity of O(n), where n is the number of children of the root,
+     *     and a memory complexity of O(1).
+     * </p>
+     * @param position The position of the board after the reply of the opponent
+     * @return The new root node, or null if the position is not in the kept tree
+     */
+    private Node reuseRoot(Position position) {
+        if (tree == null) {
+            return null;
+        }
+        for (Node child : tree.getRoot().getChildArray()) {
+            if (child.getState().getPosition().equals(position)) {
+                child.setParent(null);
+                tree.setRoot(child);
+                return child;
+            }
+        }
+        return null;
+    }
 
     /**
      * The selectPromisingNode function selects the most promising node in the tree to explore next,
@@ -214,18 +896,36 @@ public class MCTSPlayer {
      *     as it does not create any new data structures.
      * </p>
      * @param rootNode The root node of the search tree.
+     * @param virtualLoss If every node on the path gets a virtual loss
      * @return The most promising node in the search tree to explore next.
      */
-    private Node selectPromisingNode(Node rootNode) {
+    private Node selectPromisingNode(Node rootNode, boolean virtualLoss) {
         // Traverse the search tree from the root node to a leaf node
         // using the UCT algorithm to determine the most promising node to explore next
         Node node = rootNode;
-        while (node.getChildArray().size() != 0) {
-            node = UCT.findBestNodeWithUCT(node);
+        if (virtualLoss) {
+            node.getState().addVirtualLoss();
+        }
+        // a proven node is not searched below, its result is known
+        while (node.getChildArray().size() != 0 && !node.getState().isProven()) {
+            node = UCT.findBestNodeWithUCT(node, transpositionTable, raveEquivalence);
+            if (virtualLoss) {
+                node.getState().addVirtualLoss();
+            }
         }
         return node;
     }
 
+    /**
+     * Removes the virtual loss that selectPromisingNode added on the path from the root to the given node.
+     * @param node The node that was selected
+     */
+    private void removeVirtualLoss(Node node) {
+        for (Node tempNode = node; tempNode != null; tempNode = tempNode.getParent()) {
+            tempNode.getState().removeVirtualLoss();
+        }
+    }
+
 
 
     /**
@@ -238,23 +938,79 @@ public class MCTSPlayer {
      *     moves that the current player can make.
      *     The memory complexity is proportional to the number of child nodes
      *     that are added to the parent node's child array.
+     *     A child holds only its move, its position is created when the search first visits it.
+     *     The children are published at once, so if another thread expanded the node first
+     *     its children are kept and these are dropped.
+     *     A child whose move wins the game is proven a win at once (see prove), without a position,
+     *     and a child after whose move the opponent can pass to its goal row is proven a loss
+     *     (see Threats.allowsWinNextMove, it makes no move).
      * </p>
      * @param node The node to expand.
+     * @return The number of children that were added, 0 if another thread expanded the node first.
+     */
+    private int expand(Node node) {
+        // Get all possible states resulting from the moves of the current player
+        List<State> possibleStates = node.getState().getAllPossibleStates();
+        // Create a new child node for each possible state,
+        // the state was already copied for the child so the node does not copy it again
+        List<Node> children = new ArrayList<>(possibleStates.size());
+        for (State state : possibleStates) {
+            Node newNode = new Node(state, node, new ArrayList<>());
+            newNode.getState().setPlayerNum(node.getState().getOpponent());
+            children.add(newNode);
+        }
+        if (!node.publishChildArray(children)) {
+            return 0;
+        }
+        BitBoard bitBoard = node.getState().getPosition().toBitBoard();
+        for (Node child : children) {
+            if (winsGame(child.getState().getPlayerNum(), child.getState().getMove())) {
+                prove(child, State.PROVEN_WIN);
+            }
+            else if (Threats.allowsWinNextMove(bitBoard, child.getState().getMove())) {
+                prove(child, State.PROVEN_LOSS);
+            }
+        }
+        return children.size();
+    }
+
+    /**
+     * Checks if a move wins the game, only a pass of the ball of the player to its goal row wins.
+     * @param playerNum The number of the player that makes the move
+     * @param move The packed move
+     * @return true if the move wins the game
+     */
+    private static boolean winsGame(int playerNum, int move) {
+        return Move.isPass(move) && BitBoard.row(Move.to(move)) == BitBoard.goalRow(playerNum);
+    }
+
+    /**
+     * Sets the proven value of a node and proves the ancestors that it decides (MCTS-Solver).
+     * <p>
+     *     A proven win of a node is a proven loss of its parent (the player to move in the parent has a winning move),
+     *     and a proven loss of a node is a proven win of its parent when all its siblings are proven losses too.
+     *     A proof is a fact about the position, so threads that prove the same node write the same value.
+     *     The function has a time complexity of O(d * b), where d is the depth of the node
+     *     and b is the number of children of a node.
+     * </p>
+     * @param node The node that was proven
+     * @param value State.PROVEN_WIN or State.PROVEN_LOSS for the player that made the move to the node
      */
-    private void expand(Node node) {
-        // Get the current player's pieces on the board
-        Cell[] cells = node.getState().getBoard().getCurrPlayer().getPieces();
-        // Create child nodes for each possible move for each piece
-        for (Cell cell : cells) {
-            // Get all possible states resulting from moving the current piece
-            List<State> possibleStates = node.getState().getAllPossibleStates(cell);
-            // Create a new child node for each possible state and add it to the parent node's child array
-            for (State state : possibleStates) {
-                Node newNode = new Node(state);
-                newNode.setParent(node);
-                newNode.getState().setPlayerNum(node.getState().getOpponent());
-                node.getChildArray().add(newNode);
+    private static void prove(Node node, int value) {
+        node.getState().setProven(value);
+        for (Node parent = node.getParent(); parent != null && !parent.getState().isProven(); parent = node.getParent()) {
+            if (node.getState().getProven() == State.PROVEN_LOSS) {
+                for (Node sibling : parent.getChildArray()) {
+                    if (sibling.getState().getProven() != State.PROVEN_LOSS) {
+                        return;
+                    }
+                }
+                parent.getState().setProven(State.PROVEN_WIN);
+            }
+            else {
+                parent.getState().setProven(State.PROVEN_LOSS);
             }
+            node = parent;
         }
     }
 
@@ -262,7 +1018,8 @@ public class MCTSPlayer {
     /**
      * Performs back propagation in the Monte Carlo Tree Search (MCTS) algorithm
      * by updating the score and visit count of each node
-     * along the path from the expanded node to the root node.
+     * along the path from the expanded node to the root node,
+     * and of its position in the transposition table if there is one.
      * <p>
      *     This function performs back propagation by updating the score
      *     and visit count of each node along the path from the expanded node to the root
@@ -272,61 +1029,109 @@ public class MCTSPlayer {
      *     nodes in the tree.
      * </p>
      * @param nodeToExplore The node that was selected for exploration in the simulation phase.
-     * @param playerNum     The number of the player who won the game in the simulation phase.
+     * @param whiteReward   The reward of white in the simulation phase (see Playout).
      */
-    private void backPropagation(Node nodeToExplore, int playerNum) {
+    private void backPropagation(Node nodeToExplore, double whiteReward) {
         // Traverse up the tree from the explored node to the root node, updating each node's score and visit count
         Node tempNode = nodeToExplore;
         while (tempNode != null) {
             tempNode.getState().incrementVisit();
-            if (tempNode.getState().getPlayerNum() == playerNum) {
-                // If the current player won the simulated game, add the win score to the node's score
-                tempNode.getState().addScore(WIN_SCORE);
-            }
-            else {
-                // If the opponent player won the simulated game, subtract the win score from the node's
-                tempNode.getState().addScore(WIN_SCORE * -1);
+            double score = score(tempNode.getState().getPlayerNum(), whiteReward);
+            tempNode.getState().addScore(score);
+            if (transpositionTable != null) {
+                transpositionTable.add(tempNode.getState().getKey(), score);
             }
             tempNode = tempNode.getParent();
         }
     }
 
 
+    /**
+     * Updates the all moves as first (AMAF) statistics of the tree with the moves of a simulation.
+     * <p>
+     *     Going up from the explored node to the root, every child of a node on the path
+     *     whose move was played after the node (on the path or in the playout) by the player of the child
+     *     gets the score of the simulation for its player.
+     *     The played moves are marked with the number of the iteration in an array of AMAF keys,
+     *     so the function allocates nothing and has a time complexity of O(p + d * b),
+     *     where p is the number of moves of the playout, d is the depth of the explored node
+     *     and b is the number of children of a node.
+     * </p>
+     * @param nodeToExplore The node that was selected for exploration in the simulation phase.
+     * @param playout       The playout engine that played the simulation.
+     * @param moveCount     The number of moves of the playout (0 if the node was terminal and no playout was played).
+     * @param whiteReward   The reward of white in the simulation phase (see Playout).
+     * @param amafStamps    The iteration in which every AMAF key was last played.
+     * @param stamp         The number of this iteration, it must be above the number of every previous iteration.
+     */
+    private static void updateAmaf(Node nodeToExplore, Playout playout, int moveCount, double whiteReward,
+                                   int[] amafStamps, int stamp) {
+        for (int i = 0; i < moveCount; i++) {
+            amafStamps[amafKey(playout.getMovePlayer(i), playout.getMove(i))] = stamp;
+        }
+        for (Node tempNode = nodeToExplore; tempNode != null; tempNode = tempNode.getParent()) {
+            for (Node child : tempNode.getChildArray()) {
+                State state = child.getState();
+                if (amafStamps[amafKey(state.getPlayerNum(), state.getMove())] == stamp) {
+                    state.addAmafResult(score(state.getPlayerNum(), whiteReward));
+                }
+            }
+            // The move of this node was played after its parent
+            State state = tempNode.getState();
+            amafStamps[amafKey(state.getPlayerNum(), state.getMove())] = stamp;
+        }
+    }
+
+    // The index of a move of a player in the array of AMAF keys
+    private static int amafKey(int playerNum, int move) {
+        return (playerNum - 1) * MOVE_KEYS + move;
+    }
+
+    /**
+     * Converts the reward of white of a simulation to the score of a node.
+     * If the player of the node won the simulated game the win score is added to the node's score,
+     * if it lost the win score is subtracted, and a playout that was cut adds a fraction between them.
+     *
+     * @param playerNum   The number of the player that made the move to the node.
+     * @param whiteReward The reward of white, between 0 and 1.
+     * @return The score to add to the node, between -WIN_SCORE and WIN_SCORE.
+     */
+    private static double score(int playerNum, double whiteReward) {
+        double reward = playerNum == BitBoard.WHITE ? whiteReward : 1 - whiteReward;
+        return WIN_SCORE * (2 * reward - 1);
+    }
+
     /**
      * Simulates a game from the given node using a random policy until a terminal state is reached, and returns the number of the player who won the game.
      * <p>
      * This function simulates a game from the given node using a random policy
      * until a terminal state is reached in the Monte Carlo Tree Search (MCTS) algorithm.
-     * The function returns the number of the player who won the simulated game.
+     * The function returns the reward of white of the simulated game (see Playout),
+     * a playout that reaches the maximum number of plies is cut and evaluated.
+     * A node whose value is proven is not simulated, its known result is returned,
+     * and a node where the game is over is proven a win of the player that moved to it.
      * The time complexity of the function is proportional to the length of the simulate game,
-     * and the memory complexity is constant since the function only creates
-     * a copy of the node's state to simulate the game from.
+     * and the memory complexity is constant since the game is played on the scratch bitboard of the playout engine.
      * </p>
      *
      * @param node The node to start the simulation from.
-     * @return The number of the player who won the simulated game.
-     */
-    private int simulateGame(Node node) {
-        // Create a copy of the current node's state to simulate the game from
-        Node simulationNode = new Node(node.getState());
-        State tempState = simulationNode.getState();
-        // Check if the game is already in a terminal state
-        int status = tempState.getBoard().checkStatus();
-        if (status == opponent) {
-            // If the opponent player has already won, set the parent node's win score
-            // to minimum value and return the opponent player's number
-            simulationNode.getParent().getState().setWinScore(Integer.MIN_VALUE);
-            return status;
-        }
-        // Simulate the game until a terminal state is reached
-        while (status == Board.IN_PROGRESS) {
-            tempState.switchPlayer();
-            tempState.getBoard().switchTurn();
-            tempState.randomPlay(simulationNode);
-            status = tempState.getBoard().checkStatus();
-        }
-        // Return the number of the player who won the simulated game
-        return status;
+     * @param playout The playout engine of the search thread.
+     * @return The reward of white of the simulated game.
+     */
+    private double simulateGame(Node node, Playout playout) {
+        // The result of a proven node is known
+        State state = node.getState();
+        if (state.isProven()) {
+            return Playout.reward(state.getProven() == State.PROVEN_WIN ? state.getPlayerNum() : state.getOpponent());
+        }
+        // Check if the game is already in a terminal state, the player that moved to the node won it
+        int status = state.checkStatus();
+        if (status != Board.IN_PROGRESS) {
+            prove(node, State.PROVEN_WIN);
+            return Playout.reward(status);
+        }
+        // Simulate the game from the node's position until a terminal state is reached
+        return playout.play(node.getState().getPosition());
     }
 
 }
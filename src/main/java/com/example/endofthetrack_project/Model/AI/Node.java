@@ -1,14 +1,22 @@
 package com.example.endofthetrack_project.Model.AI;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * A class representing a node in a game tree used for AI algorithm.
  * Each node contains a state, a reference to its parent node,
  * and a list of its child nodes.
+ * <p>
+ *     The children of a node are published at once by publishChildArray,
+ *     so search threads that share the tree see either no children or all of them
+ *     and a published child list is never changed during a search.
+ * </p>
  */
 public class Node {
     // the state of the game at this node
@@ -16,7 +24,19 @@ public class Node {
     // the parent node of this node
     Node parent;
     // the child nodes of this node
-    List<Node> childArray;
+    volatile List<Node> childArray;
+
+    // atomic access to the child nodes
+    private static final VarHandle CHILD_ARRAY;
+
+    static {
+        try {
+            CHILD_ARRAY = MethodHandles.lookup().findVarHandle(Node.class, "childArray", List.class);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     /**
      * Constructor for creating a new node with an empty state and no parent or children.
@@ -110,6 +130,21 @@ public class Node {
         this.childArray = childArray;
     }
 
+    /**
+     * Sets the child nodes of this node if it has none, without a lock.
+     * <p>
+     *     The list is published with a compare and set on the current (empty) list,
+     *     so when several threads expand the same node only the first one succeeds
+     *     and the others use its children. The function has a time complexity of O(1).
+     * </p>
+     * @param childArray the child nodes, the list must not be changed after it was published
+     * @return true if the list was published, false if the node already had children
+     */
+    public boolean publishChildArray(List<Node> childArray) {
+        List<Node> current = this.childArray;
+        return current.isEmpty() && CHILD_ARRAY.compareAndSet(this, current, childArray);
+    }
+
     /**
      * This method returns a random child node from the list of child nodes of the current node.
      * <p>
@@ -123,7 +158,8 @@ public class Node {
      */
     public Node getRandomChildNode() {
         int numOfPossibleMoves = this.childArray.size();
-        int selectRandom = (int) (Math.random() * numOfPossibleMoves);
+        // ThreadLocalRandom gives every search thread its own generator
+        int selectRandom = ThreadLocalRandom.current().nextInt(numOfPossibleMoves);
         return this.childArray.get(selectRandom);
     }
 
@@ -145,4 +181,29 @@ public class Node {
         return Collections.max(this.childArray, Comparator.comparing(c ->
                 c.getState().getVisitCount()));
     }
+
+    /**
+     * Returns the child to play after a search: a child that is a proven win (see State.getProven) if there is one,
+     * otherwise the child with the highest visit count that is not a proven loss
+     * (the child with the highest visit count if every child is a proven loss).
+     * <p>
+     * Time complexity: O(n), where n is the number of child nodes.
+     * </p>
+     *
+     * @return Node The child to play.
+     */
+    public Node getBestChild() {
+        Node best = null;
+        for (Node child : this.childArray) {
+            State state = child.getState();
+            if (state.getProven() == State.PROVEN_WIN) {
+                return child;
+            }
+            if (state.getProven() != State.PROVEN_LOSS
+                    && (best == null || state.getVisitCount() > best.getState().getVisitCount())) {
+                best = child;
+            }
+        }
+        return best != null ? best : getChildWithMaxScore();
+    }
 }
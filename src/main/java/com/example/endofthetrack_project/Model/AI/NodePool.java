@@ -0,0 +1,274 @@
+package com.example.endofthetrack_project.Model.AI;
+
+/**
+ * The NodePool class stores the nodes of a search tree in primitive arrays (struct of arrays).
+ * <p>
+ *     A node is an index into the arrays, it holds its visits, its score, its proven value (see State.getProven),
+ *     the packed move that led to it, the player that made that move, the index of its parent
+ *     and the index and number of its children.
+ *     The children of a node are allocated together, so they are next to each other in every array
+ *     and the UCT selection over them reads the arrays in order.
+ *     Nodes hold no position, the search replays the moves from the root on a single bitboard.
+ * </p>
+ * <p>
+ *     All the arrays are allocated once for a fixed capacity, a node takes BYTES_PER_NODE bytes
+ *     against a couple of hundred bytes for a Node with its State, Position and child list.
+ *     The pool is used by one search thread.
+ * </p>
+ */
+public class NodePool {
+
+    /**
+     * The index of no node (the parent of the root, the children of a leaf)
+     */
+    public static final int NONE = -1;
+    /**
+     * The number of bytes that a node takes in the arrays of the pool
+     */
+    public static final int BYTES_PER_NODE = Integer.BYTES + Float.BYTES + Byte.BYTES + Integer.BYTES + Byte.BYTES
+            + Short.BYTES + Integer.BYTES + Byte.BYTES;
+
+    // The statistics of the nodes
+    private final int[] visits;
+    private final float[] scores;
+    // The proven values for the player that made the move to the node (State.UNPROVEN, PROVEN_WIN or PROVEN_LOSS)
+    private final byte[] proven;
+    // The links of the nodes
+    private final int[] firstChild;
+    private final byte[] childCount;
+    private final int[] parent;
+    // The packed move that led to the node and the player that made it
+    private final short[] moves;
+    private final byte[] players;
+    // The number of allocated nodes and the index of the root
+    private int size;
+    private int root;
+
+    /**
+     * Constructs a pool that can hold the given number of nodes.
+     * @param capacity the maximum number of nodes
+     */
+    public NodePool(int capacity) {
+        this.visits = new int[capacity];
+        this.scores = new float[capacity];
+        this.proven = new byte[capacity];
+        this.firstChild = new int[capacity];
+        this.childCount = new byte[capacity];
+        this.parent = new int[capacity];
+        this.moves = new short[capacity];
+        this.players = new byte[capacity];
+        this.root = NONE;
+    }
+
+    /**
+     * Returns the maximum number of nodes of the pool.
+     * @return the capacity of the pool
+     */
+    public int getCapacity() {
+        return visits.length;
+    }
+
+    /**
+     * Returns the number of allocated nodes.
+     * @return the size of the pool
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the root node.
+     * @return the root, or NONE if the pool is empty
+     */
+    public int getRoot() {
+        return root;
+    }
+
+    /**
+     * Makes a node the root of the tree, its parent is dropped.
+     * The nodes that are not under the new root keep their place until the pool is reset.
+     * @param node the index of the new root
+     */
+    public void setRoot(int node) {
+        parent[node] = NONE;
+        root = node;
+    }
+
+    /**
+     * Frees all the nodes and allocates a new root.
+     * @param playerNum the player that made the move to the root (the opponent of the player to move)
+     * @return the index of the root
+     */
+    public int reset(int playerNum) {
+        size = 0;
+        root = allocate(NONE, 0, playerNum);
+        return root;
+    }
+
+    // Allocates a single node, the pool must have room for it
+    private int allocate(int parentNode, int move, int playerNum) {
+        int node = size++;
+        visits[node] = 0;
+        scores[node] = 0;
+        proven[node] = State.UNPROVEN;
+        firstChild[node] = NONE;
+        childCount[node] = 0;
+        parent[node] = parentNode;
+        moves[node] = (short) move;
+        players[node] = (byte) playerNum;
+        return node;
+    }
+
+    /**
+     * Allocates a child for every given move, the children are next to each other in the pool.
+     * <p>
+     *     The function has a time complexity of O(n), where n is the number of moves,
+     *     and allocates no objects.
+     * </p>
+     * @param node the index of the node to expand
+     * @param moveList the packed moves of the player to move in the node
+     * @param moveCount the number of moves
+     * @return false if the pool has no room for the children (the node stays a leaf), true otherwise
+     */
+    public boolean expand(int node, int[] moveList, int moveCount) {
+        if (moveCount == 0 || size + moveCount > getCapacity()) {
+            return false;
+        }
+        int childPlayer = 3 - players[node];
+        firstChild[node] = size;
+        for (int i = 0; i < moveCount; i++) {
+            allocate(node, moveList[i], childPlayer);
+        }
+        childCount[node] = (byte) moveCount;
+        return true;
+    }
+
+    /**
+     * Finds the child of a node with the maximum UCT value (see UCT.uctValue).
+     * A child that is a proven win is chosen at once and a proven loss is never chosen,
+     * unless every child is a proven loss.
+     * @param node the index of the parent node, it must have children
+     * @return the index of the child with the maximum UCT value
+     */
+    public int findBestChildWithUCT(int node) {
+        int parentVisit = visits[node];
+        int best = firstChild[node];
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = firstChild[node], last = child + childCount[node]; child < last; child++) {
+            if (proven[child] == State.PROVEN_WIN) {
+                return child;
+            }
+            if (proven[child] == State.PROVEN_LOSS) {
+                continue;
+            }
+            double value = UCT.uctValue(parentVisit, scores[child], visits[child]);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the child of a node with the most visits.
+     * @param node the index of the parent node, it must have children
+     * @return the index of the child with the most visits
+     */
+    public int getChildWithMaxVisits(int node) {
+        int best = firstChild[node];
+        for (int child = best + 1, last = best + childCount[node]; child < last; child++) {
+            if (visits[child] > visits[best]) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the child to play after a search: a proven win if there is one, otherwise the child
+     * with the most visits that is not a proven loss (the child with the most visits if every child is a proven loss).
+     * @param node the index of the parent node, it must have children
+     * @return the index of the child to play
+     */
+    public int getBestChild(int node) {
+        int best = NONE;
+        for (int child = firstChild[node], last = child + childCount[node]; child < last; child++) {
+            if (proven[child] == State.PROVEN_WIN) {
+                return child;
+            }
+            if (proven[child] != State.PROVEN_LOSS && (best == NONE || visits[child] > visits[best])) {
+                best = child;
+            }
+        }
+        return best != NONE ? best : getChildWithMaxVisits(node);
+    }
+
+    /**
+     * Adds a visit and the given score to a node.
+     * @param node the index of the node
+     * @param score the score to add
+     */
+    public void addResult(int node, double score) {
+        visits[node]++;
+        scores[node] += (float) score;
+    }
+
+    /**
+     * Sets the proven value of a node and proves its ancestors that it decides (MCTS-Solver).
+     * <p>
+     *     A proven win of a node is a proven loss of its parent (the player to move in the parent has a winning move),
+     *     and a proven loss of a node is a proven win of its parent when all the siblings are proven losses too.
+     *     The function has a time complexity of O(d * b), where d is the depth of the node and b is the number of children of a node.
+     * </p>
+     * @param node the index of the node
+     * @param value State.PROVEN_WIN or State.PROVEN_LOSS for the player that made the move to the node
+     */
+    public void prove(int node, int value) {
+        proven[node] = (byte) value;
+        for (int n = node, p = parent[n]; p != NONE && proven[p] == State.UNPROVEN; n = p, p = parent[n]) {
+            if (proven[n] == State.PROVEN_WIN) {
+                proven[p] = State.PROVEN_LOSS;
+                continue;
+            }
+            for (int child = firstChild[p], last = child + childCount[p]; child < last; child++) {
+                if (proven[child] != State.PROVEN_LOSS) {
+                    return;
+                }
+            }
+            proven[p] = State.PROVEN_WIN;
+        }
+    }
+
+    public int getProven(int node) {
+        return proven[node];
+    }
+
+    public int getVisits(int node) {
+        return visits[node];
+    }
+
+    public double getScore(int node) {
+        return scores[node];
+    }
+
+    public int getParent(int node) {
+        return parent[node];
+    }
+
+    public int getFirstChild(int node) {
+        return firstChild[node];
+    }
+
+    public int getChildCount(int node) {
+        return childCount[node];
+    }
+
+    public int getMove(int node) {
+        return moves[node];
+    }
+
+    public int getPlayerNum(int node) {
+        return players[node];
+    }
+}
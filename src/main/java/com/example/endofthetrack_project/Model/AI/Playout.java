@@ -0,0 +1,264 @@
+package com.example.endofthetrack_project.Model.AI;
+
+import com.example.endofthetrack_project.Model.BitBoard;
+import com.example.endofthetrack_project.Model.Move;
+import com.example.endofthetrack_project.Model.Position;
+import com.example.endofthetrack_project.Model.Threats;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The Playout class plays random games (the simulation of MCTS) on a scratch bitboard.
+ * <p>
+ *     Every ply generates the moves of the player to move into a reused array,
+ *     lets the rollout policy pick one of them (uniformly by default) and makes it in place,
+ *     so a playout allocates nothing.
+ *     An instance is used by a single thread, every search thread has its own.
+ * </p>
+ * <p>
+ *     A playout can be cut after a maximum number of plies, then its result is a static evaluation
+ *     of the position (see evaluate), so the cost of an iteration is bounded.
+ *     The result of a playout is the reward of white: 1 for a white win, 0 for a black win
+ *     and a fraction for a playout that was cut.
+ * </p>
+ * <p>
+ *     The moves of the last playout and the players that made them are kept
+ *     (see getMoveCount, getMove and getMovePlayer), so the search can update
+ *     the all moves as first statistics of its tree with them.
+ * </p>
+ */
+public class Playout {
+
+    /**
+     * The maximum number of plies of a playout that is never cut
+     */
+    public static final int NO_LIMIT = 0;
+    // The first capacity of the moves of a playout that is never cut
+    private static final int DEFAULT_HISTORY = 512;
+
+    // The maximum number of plies of a playout (NO_LIMIT for none)
+    private final int maxPlies;
+    // The policy that chooses the moves and its scratch array of move weights
+    private final RolloutPolicy policy;
+    private final int[] weights;
+    // The position the game is played on
+    private final BitBoard bitBoard;
+    // The moves of the player to move
+    private final int[] moves;
+    // The moves of the last playout and the players that made them, they grow when a long playout needs it
+    private int[] playedMoves;
+    private byte[] playedPlayers;
+    private int playedCount;
+    // The number of playouts, plies and playouts that were cut that were played
+    private long playouts;
+    private long plies;
+    private long cutPlayouts;
+
+    /**
+     * Constructs a playout engine whose playouts are never cut.
+     */
+    public Playout() {
+        this(NO_LIMIT);
+    }
+
+    /**
+     * Constructs a playout engine with its scratch bitboard and move array.
+     * @param maxPlies The maximum number of plies of a playout (NO_LIMIT for none)
+     */
+    public Playout(int maxPlies) {
+        this(maxPlies, UniformRolloutPolicy.INSTANCE);
+    }
+
+    /**
+     * Constructs a playout engine with its scratch bitboard and move array.
+     * @param maxPlies The maximum number of plies of a playout (NO_LIMIT for none)
+     * @param policy The policy that chooses the moves of the playouts
+     */
+    public Playout(int maxPlies, RolloutPolicy policy) {
+        this.maxPlies = maxPlies;
+        this.policy = policy;
+        this.bitBoard = new BitBoard();
+        this.moves = new int[Move.MAX_MOVES];
+        this.weights = new int[Move.MAX_MOVES];
+        int capacity = maxPlies == NO_LIMIT ? DEFAULT_HISTORY : maxPlies;
+        this.playedMoves = new int[capacity];
+        this.playedPlayers = new byte[capacity];
+    }
+
+    /**
+     * Plays a random game from a position until one of the players wins or the maximum number of plies.
+     * @param position The position to start from
+     * @return The reward of white
+     */
+    public double play(Position position) {
+        bitBoard.set(position.whiteKnights(), position.blackKnights(),
+                position.whiteBall(), position.blackBall(), position.currPlayer());
+        return play();
+    }
+
+    /**
+     * Plays a random game from the position of a bitboard until one of the players wins or the maximum number of plies.
+     * @param start The bitboard to start from, it is not changed
+     * @return The reward of white
+     */
+    public double play(BitBoard start) {
+        bitBoard.set(start);
+        return play();
+    }
+
+    /**
+     * Plays random moves on the scratch bitboard until one of the players wins or the maximum number of plies.
+     * <p>
+     *     A player with no move passes the turn, and a player that can pass its ball to its goal row
+     *     always does (see Threats.winningPass), whatever the rollout policy.
+     *     The function has a time complexity of O(p * m), where p is the number of plies (at most maxPlies)
+     *     and m is the number of moves of a ply, and a memory complexity of O(1).
+     * </p>
+     * @return The reward of white
+     */
+    private double play() {
+        Random random = ThreadLocalRandom.current();
+        playouts++;
+        playedCount = 0;
+        for (int ply = 0; !bitBoard.isGameOver(); ply++) {
+            if (ply == maxPlies && maxPlies != NO_LIMIT) {
+                cutPlayouts++;
+                return evaluate(bitBoard);
+            }
+            // A pass to the goal row is always played, the moves are not generated for it
+            int move = Threats.winningPass(bitBoard, bitBoard.getCurrPlayer());
+            if (move == Move.NONE) {
+                int moveCount = bitBoard.generateMoves(moves);
+                if (moveCount > 0) {
+                    move = policy.chooseMove(bitBoard, moves, moveCount, weights, random);
+                }
+            }
+            if (move != Move.NONE) {
+                record(move, bitBoard.getCurrPlayer());
+                bitBoard.makeMove(move);
+                plies++;
+            }
+            if (!bitBoard.isGameOver()) {
+                bitBoard.switchTurn();
+            }
+        }
+        return reward(bitBoard.getWinner());
+    }
+
+    // Adds a move to the moves of the playout
+    private void record(int move, int player) {
+        if (playedCount == playedMoves.length) {
+            playedMoves = Arrays.copyOf(playedMoves, 2 * playedCount);
+            playedPlayers = Arrays.copyOf(playedPlayers, 2 * playedCount);
+        }
+        playedMoves[playedCount] = move;
+        playedPlayers[playedCount] = (byte) player;
+        playedCount++;
+    }
+
+    /**
+     * Returns the number of moves that were made by the last playout.
+     * @return the number of moves of the last playout
+     */
+    public int getMoveCount() {
+        return playedCount;
+    }
+
+    /**
+     * Returns a move of the last playout.
+     * @param index the index of the move, from 0 (the first move) to getMoveCount() - 1
+     * @return the packed move (see Move)
+     */
+    public int getMove(int index) {
+        return playedMoves[index];
+    }
+
+    /**
+     * Returns the player that made a move of the last playout.
+     * @param index the index of the move, from 0 (the first move) to getMoveCount() - 1
+     * @return the number of the player
+     */
+    public int getMovePlayer(int index) {
+        return playedPlayers[index];
+    }
+
+    /**
+     * Returns the reward of white for a game that the given player won.
+     * @param winner The number of the player who won the game
+     * @return 1 if white won, 0 if black won
+     */
+    public static double reward(int winner) {
+        return winner == BitBoard.WHITE ? 1 : 0;
+    }
+
+    /**
+     * Evaluates a position that is not over as the reward of white.
+     * <p>
+     *     The evaluation compares the distances of the balls from their goal rows
+     *     (the rows to go and the pieces in the way, see BitBoard.getDistanceToGoal):
+     *     the reward is 1/2 when they are equal and gets closer to 1 as the ball of white is closer than the ball of black.
+     *     The function has a time complexity of O(1).
+     * </p>
+     * @param bitBoard The position to evaluate
+     * @return The reward of white, between 0 and 1
+     */
+    public static double evaluate(BitBoard bitBoard) {
+        int white = bitBoard.getDistanceToGoal(BitBoard.WHITE);
+        int black = bitBoard.getDistanceToGoal(BitBoard.BLACK);
+        return 0.5 + 0.5 * (black - white) / (black + white);
+    }
+
+    /**
+     * Returns the number of playouts that were played by this engine.
+     * @return the number of playouts
+     */
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    /**
+     * Returns the number of plies that were played by this engine.
+     * @return the number of plies
+     */
+    public long getPlies() {
+        return plies;
+    }
+
+    /**
+     * Returns the number of playouts that were cut at the maximum number of plies.
+     * @return the number of cut playouts
+     */
+    public long getCutPlayouts() {
+        return cutPlayouts;
+    }
+
+    /**
+     * Plays random games from the start position for a second and prints the number of playouts per second.
+     * @param args : the number of seconds (1 by default) and the maximum number of plies (no limit by default)
+     */
+    public static void main(String[] args) {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 1;
+        int maxPlies = args.length > 1 ? Integer.parseInt(args[1]) : NO_LIMIT;
+        for (RolloutPolicy policy : new RolloutPolicy[] {UniformRolloutPolicy.INSTANCE, WeightedRolloutPolicy.INSTANCE}) {
+            Playout playout = new Playout(maxPlies, policy);
+            // a first run so the measured run is not slowed by the warm up of the JIT
+            for (int i = 0; i < 1000; i++) {
+                playout.play(Position.START);
+            }
+            playout = new Playout(maxPlies, policy);
+            long start = System.nanoTime();
+            long end = start + (long) (seconds * 1_000_000_000L);
+            double whiteReward = 0;
+            while (System.nanoTime() < end) {
+                whiteReward += playout.play(Position.START);
+            }
+            long time = System.nanoTime() - start;
+            System.out.printf("%s: %d playouts, %.0f playouts/s, %.1f plies per playout, %d cut, white reward %.3f%n",
+                    policy, playout.getPlayouts(), playout.getPlayouts() * 1_000_000_000.0 / time,
+                    (double) playout.getPlies() / playout.getPlayouts(), playout.getCutPlayouts(),
+                    whiteReward / playout.getPlayouts());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.endofthetrack_project.Model.AI;
+
+import com.example.endofthetrack_project.Model.BitBoard;
+
+import java.util.Random;
+
+/**
+ * The RolloutPolicy interface chooses the moves of a playout (see Playout).
+ * <p>
+ *     A policy holds no state, so one instance can be shared by all the search threads,
+ *     the scratch array for the weights of the moves is given by the playout engine.
+ * </p>
+ */
+public interface RolloutPolicy {
+
+    /**
+     * Chooses one of the legal moves of the player to move.
+     * @param bitBoard The position of the playout
+     * @param moves The packed legal moves of the player to move (see Move)
+     * @param moveCount The number of legal moves, at least 1
+     * @param weights A scratch array of at least moveCount ints the policy may write to
+     * @param random The random number generator of the search thread
+     * @return The chosen packed move
+     */
+    int chooseMove(BitBoard bitBoard, int[] moves, int moveCount, int[] weights, Random random);
+}
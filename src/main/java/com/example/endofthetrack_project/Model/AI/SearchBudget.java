@@ -0,0 +1,118 @@
+package com.example.endofthetrack_project.Model.AI;
+
+/**
+ * The SearchBudget class holds the limits of a search of MCTSPlayer:
+ * a maximum number of iterations, a maximum number of new tree nodes and a maximum wall time.
+ * <p>
+ *     The search stops at the first limit that is reached, a limit that is UNLIMITED is not checked.
+ *     A budget of iterations (or nodes) makes the strength and the CPU cost of a move the same on a busy host
+ *     and on an idle one, a budget of time bounds the latency of a move, and both can be combined.
+ *     The iterations and nodes are counted over all the search threads.
+ * </p>
+ * <p>
+ *     A budget is an immutable value, the with methods return a new budget.
+ * </p>
+ */
+public final class SearchBudget {
+
+    /**
+     * The value of a limit that is not checked
+     */
+    public static final long UNLIMITED = 0;
+    // The number of iterations of the first level, every level adds twice as many
+    private static final long ITERATIONS_PER_LEVEL_STEP = 1000;
+
+    private final long maxIterations;
+    private final long maxNodes;
+    private final long maxMillis;
+
+    /**
+     * Constructs a budget, a search with a budget that has no limit runs until it is stopped.
+     * @param maxIterations the maximum number of iterations, or UNLIMITED
+     * @param maxNodes the maximum number of nodes that the search adds to the tree, or UNLIMITED
+     * @param maxMillis the maximum wall time in milliseconds, or UNLIMITED
+     */
+    public SearchBudget(long maxIterations, long maxNodes, long maxMillis) {
+        this.maxIterations = Math.max(UNLIMITED, maxIterations);
+        this.maxNodes = Math.max(UNLIMITED, maxNodes);
+        this.maxMillis = Math.max(UNLIMITED, maxMillis);
+    }
+
+    /**
+     * @param maxIterations : the maximum number of iterations
+     * @return : a budget of iterations only
+     */
+    public static SearchBudget ofIterations(long maxIterations) {
+        return new SearchBudget(maxIterations, UNLIMITED, UNLIMITED);
+    }
+
+    /**
+     * @param maxNodes : the maximum number of nodes that the search adds to the tree
+     * @return : a budget of nodes only
+     */
+    public static SearchBudget ofNodes(long maxNodes) {
+        return new SearchBudget(UNLIMITED, maxNodes, UNLIMITED);
+    }
+
+    /**
+     * @param maxMillis : the maximum wall time in milliseconds
+     * @return : a budget of time only
+     */
+    public static SearchBudget ofMillis(long maxMillis) {
+        return new SearchBudget(UNLIMITED, UNLIMITED, maxMillis);
+    }
+
+    /**
+     * Returns the budget of a difficulty level, a number of iterations that grows linearly with the level:
+     * 1000 for level 1, 5000 for level 3 and 99000 for level 50
+     * (about the iterations of the old time limit of 60 * (2 * level - 1) milliseconds on a single thread).
+     * @param level the difficulty level, from 1
+     * @return the budget of iterations of the level
+     */
+    public static SearchBudget forLevel(int level) {
+        return ofIterations(ITERATIONS_PER_LEVEL_STEP * (2L * (Math.max(1, level) - 1) + 1));
+    }
+
+    /**
+     * @param maxIterations : the maximum number of iterations, or UNLIMITED
+     * @return : a budget with the given iterations and the other limits of this budget
+     */
+    public SearchBudget withMaxIterations(long maxIterations) {
+        return new SearchBudget(maxIterations, maxNodes, maxMillis);
+    }
+
+    /**
+     * @param maxNodes : the maximum number of new tree nodes, or UNLIMITED
+     * @return : a budget with the given nodes and the other limits of this budget
+     */
+    public SearchBudget withMaxNodes(long maxNodes) {
+        return new SearchBudget(maxIterations, maxNodes, maxMillis);
+    }
+
+    /**
+     * @param maxMillis : the maximum wall time in milliseconds, or UNLIMITED
+     * @return : a budget with the given time and the other limits of this budget
+     */
+    public SearchBudget withMaxMillis(long maxMillis) {
+        return new SearchBudget(maxIterations, maxNodes, maxMillis);
+    }
+
+    public long getMaxIterations() {
+        return maxIterations;
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "iterations " + (maxIterations == UNLIMITED ? "unlimited" : maxIterations) +
+                ", nodes " + (maxNodes == UNLIMITED ? "unlimited" : maxNodes) +
+                ", millis " + (maxMillis == UNLIMITED ? "unlimited" : maxMillis);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.endofthetrack_project.Model.AI;
+
+import com.example.endofthetrack_project.Model.Board;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The SearchHandle class controls a search of MCTSPlayer that runs in the background (see MCTSPlayer.startSearch).
+ * <p>
+ *     The search runs until its budget is spent or until it is stopped, and it can be asked for its progress at any time.
+ *     stop ends the search after the iterations that are running and plays the best move so far,
+ *     cancel ends it without a move. A progress listener gets a snapshot every interval
+ *     and a last one when the search is done, it is called on a thread of the handle and should return quickly.
+ * </p>
+ * <p>
+ *     The player must not be used by another search until this one is done.
+ *     If the search throws, the search ends and await and getResult throw the same exception.
+ * </p>
+ */
+public class SearchHandle {
+
+    // The budget of the search, it also holds the statistics of the progress
+    private final BudgetTracker tracker;
+    // The thread that runs the search and the thread that calls the listener (null without a listener)
+    private final Thread searchThread;
+    private final Thread reporterThread;
+    // The board after the chosen move (null until the search is done, or if it was cancelled)
+    private volatile Board result;
+    // What the search threw (null if it did not), written before finalProgress
+    private volatile Throwable failure;
+    // The last snapshot of the search, written before the search thread ends
+    private volatile SearchProgress finalProgress;
+
+    /**
+     * Constructs a handle of a search, the search starts with start.
+     * @param search runs the search and returns the board after the chosen move
+     * @param tracker the budget of the search
+     * @param listener gets the snapshots of the progress, or null
+     * @param intervalMillis the time between two snapshots
+     */
+    SearchHandle(Supplier<Board> search, BudgetTracker tracker, Consumer<SearchProgress> listener, long intervalMillis) {
+        this.tracker = tracker;
+        this.searchThread = new Thread(() -> {
+            try {
+                Board board = search.get();
+                if (!tracker.isCancelled()) {
+                    result = board;
+                }
+            }
+            catch (Throwable e) {
+                // kept for await and getResult, so a failed search is not taken for a cancelled one
+                failure = e;
+            }
+            finally {
+                finalProgress = tracker.getProgress(true);
+            }
+        }, "mcts-search");
+        this.searchThread.setDaemon(true);
+        if (listener != null) {
+            long interval = Math.max(1, intervalMillis);
+            this.reporterThread = new Thread(() -> report(listener, interval), "mcts-progress");
+            this.reporterThread.setDaemon(true);
+        }
+        else {
+            this.reporterThread = null;
+        }
+    }
+
+    /**
+     * Starts the threads of the search.
+     */
+    void start() {
+        searchThread.start();
+        if (reporterThread != null) {
+            reporterThread.start();
+        }
+    }
+
+    // Calls the listener every interval until the search ends, and once more with the last snapshot
+    private void report(Consumer<SearchProgress> listener, long intervalMillis) {
+        try {
+            searchThread.join(intervalMillis);
+            while (searchThread.isAlive()) {
+                listener.accept(tracker.getProgress(false));
+                searchThread.join(intervalMillis);
+            }
+        }
+        catch (InterruptedException e) {
+            return;
+        }
+        listener.accept(finalProgress);
+    }
+
+    /**
+     * Stops the search now, the best move so far is played.
+     */
+    public void stop() {
+        tracker.stop();
+    }
+
+    /**
+     * Stops the search now without a move, await and getResult return null.
+     * A search that is already done keeps its result.
+     */
+    public void cancel() {
+        tracker.cancel();
+    }
+
+    /**
+     * @return : true if the search ended (its budget was spent, or it was stopped, cancelled or failed)
+     */
+    public boolean isDone() {
+        return finalProgress != null;
+    }
+
+    /**
+     * Returns a snapshot of the search, it can be called at any time from any thread.
+     * @return the progress of the search, or its last snapshot if it is done
+     */
+    public SearchProgress getProgress() {
+        SearchProgress progress = finalProgress;
+        return progress != null ? progress : tracker.getProgress(false);
+    }
+
+    /**
+     * Returns the move that the search would play if it stopped now.
+     * @return the packed best move (see Move), Move.NONE before the root has children
+     */
+    public int getBestMove() {
+        return getProgress().bestMove();
+    }
+
+    /**
+     * Waits for the search to end.
+     * @return the board after the chosen move, or null if the search was cancelled
+     * @throws InterruptedException if the waiting thread is interrupted, the search goes on
+     * @throws RuntimeException the exception that the search threw (an Error is thrown as it is too)
+     */
+    public Board await() throws InterruptedException {
+        searchThread.join();
+        return getResult();
+    }
+
+    /**
+     * @return : the board after the chosen move, or null if the search is not done or was cancelled
+     * @throws RuntimeException the exception that the search threw (an Error is thrown as it is too)
+     */
+    public Board getResult() {
+        Throwable failure = this.failure;
+        if (failure instanceof RuntimeException e) {
+            throw e;
+        }
+        if (failure instanceof Error e) {
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * @return : the exception that the search threw, or null if it did not fail (or is not done)
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+}
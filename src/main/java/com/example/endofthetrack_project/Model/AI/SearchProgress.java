@@ -0,0 +1,27 @@
+package com.example.endofthetrack_project.Model.AI;
+
+import com.example.endofthetrack_project.Model.Move;
+
+/**
+ * SearchProgress record is a snapshot of a running search of MCTSPlayer (see SearchHandle)
+ * <p>
+ *     The best move is the move that the search would play if it stopped now
+ *     (a proven win, or the root move with the most visits that is not a proven loss),
+ *     and its visit share tells how settled the choice is.
+ *     With root parallelization the visits are those of the tree of the calling thread.
+ * </p>
+ * @param iterations : the number of iterations done so far, on all the threads
+ * @param bestMove : the packed best move (see Move), Move.NONE before the root has children
+ * @param bestVisitShare : the visits of the best move divided by the visits of all the root moves, between 0 and 1
+ * @param elapsedMillis : the wall time since the search started
+ * @param done : if the search ended, then bestMove is the move that was played
+ */
+public record SearchProgress(long iterations, int bestMove, double bestVisitShare, long elapsedMillis, boolean done) {
+
+    @Override
+    public String toString() {
+        return (done ? "done: " : "searching: ") + iterations + " iterations in " + elapsedMillis + " ms, best " +
+                (bestMove == Move.NONE ? "none" : Move.toString(bestMove)) +
+                String.format(" (%.0f%% of the visits)", 100 * bestVisitShare);
+    }
+}
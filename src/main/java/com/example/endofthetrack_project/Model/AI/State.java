@@ -1,33 +1,91 @@
 package com.example.endofthetrack_project.Model.AI;
 
+import com.example.endofthetrack_project.Model.BitBoard;
 import com.example.endofthetrack_project.Model.Board;
-import com.example.endofthetrack_project.Model.Cell;
-import com.example.endofthetrack_project.Model.Player;
+import com.example.endofthetrack_project.Model.Move;
+import com.example.endofthetrack_project.Model.Position;
+import com.example.endofthetrack_project.Model.Zobrist;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 /**
- * Represents a state in the game, consisting of the current board state,
- * the player number, visit count, and win score.
+ * Represents a state in the game, consisting of the current position,
+ * the move that led to it, the player number, visit count, and win score.
+ * <p>
+ *     The position is an immutable Position value, so states can share it
+ *     and copying a state does not copy the board.
+ *     A state that is created by an expansion holds only its move and its parent state,
+ *     its position is created by replaying the move on the position of the parent
+ *     the first time it is asked for, so children that are never visited cost no position.
+ * </p>
+ * <p>
+ *     The visit count, the win score, the virtual loss and the AMAF statistics are updated atomically
+ *     (through VarHandles on volatile fields) so several search threads can share one tree.
+ * </p>
  */
 public class State {
-    // The current board state
-    private Board board;
+
+    /**
+     * The game theoretic value of a state for the player that made the move to it (see getProven):
+     * not proven yet, a proven win and a proven loss
+     */
+    public static final int UNPROVEN = 0;
+    public static final int PROVEN_WIN = 1;
+    public static final int PROVEN_LOSS = -1;
+
+    // The current position (null until it is replayed from the parent state)
+    private volatile Position position;
+    // The state to replay the move on (null once the position was created)
+    private volatile State parentState;
+    // The zobrist key of the position, known before the position is created
+    private long key;
+    // The packed move that led to this state (Move.NONE for the root)
+    private int move;
     // The player number
     private int playerNum;
     // The number of times this state has been visited
-    private int visitCount;
+    private volatile int visitCount;
     // The total score of wins for this state
-    private double winScore;
+    private volatile double winScore;
+    // The number of search threads that are running an iteration through this state
+    private volatile int virtualLoss;
+    // The number of simulations and their total score in which the move of this state was played
+    // later by the same player (all moves as first), they are used by RAVE
+    private volatile int amafVisitCount;
+    private volatile double amafWinScore;
+    // The proven value of the state for the player that made the move to it (UNPROVEN, PROVEN_WIN or PROVEN_LOSS)
+    private volatile int proven;
+
+    // Atomic access to the statistics of the state
+    private static final VarHandle VISIT_COUNT;
+    private static final VarHandle WIN_SCORE;
+    private static final VarHandle VIRTUAL_LOSS;
+    private static final VarHandle AMAF_VISIT_COUNT;
+    private static final VarHandle AMAF_WIN_SCORE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VISIT_COUNT = lookup.findVarHandle(State.class, "visitCount", int.class);
+            WIN_SCORE = lookup.findVarHandle(State.class, "winScore", double.class);
+            VIRTUAL_LOSS = lookup.findVarHandle(State.class, "virtualLoss", int.class);
+            AMAF_VISIT_COUNT = lookup.findVarHandle(State.class, "amafVisitCount", int.class);
+            AMAF_WIN_SCORE = lookup.findVarHandle(State.class, "amafWinScore", double.class);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     /**
-     * Constructor that creates a new instance of State with an empty board.
+     * Constructor that creates a new instance of State with the start position.
      */
     public State() {
-        board = new Board();
+        position = Position.START;
+        key = position.zobristKey();
     }
 
     /**
@@ -35,34 +93,118 @@ public class State {
      * @param state the State object to create a new instance of the state
      */
     public State(State state) {
-        this.board = new Board(state.getBoard());
+        this.position = state.getPosition();
+        this.key = state.getKey();
+        this.move = state.getMove();
         this.playerNum = state.getPlayerNum();
         this.visitCount = state.getVisitCount();
         this.winScore = state.getWinScore();
+        this.amafVisitCount = state.getAmafVisitCount();
+        this.amafWinScore = state.getAmafWinScore();
+        this.proven = state.getProven();
+    }
+
+    /**
+     * Constructor that creates a new instance of State with a given Position.
+     * @param position the position of the new state
+     */
+    public State(Position position) {
+        this.position = position;
+        this.key = position.zobristKey();
     }
 
     /**
-     * Constructor that creates a new instance of State with a given Board object.
-     * @param board the Board object to create the new instance with the board
+     * Constructor that creates a new instance of State that is reached by a move from a parent state,
+     * the position is created from the position of the parent when it is first asked for.
+     * @param parentState the state the move is made from
+     * @param move the packed move that leads to the new state (see Move)
      */
-    public State(Board board) {
-        this.board = new Board(board);
+    public State(State parentState, int move) {
+        this.parentState = parentState;
+        this.move = move;
+        this.key = parentState.getKey() ^ Zobrist.moveKey(parentState.getOpponent(), move);
     }
 
     /**
-     * Returns the current board state.
-     * @return the current board state
+     * Returns the current position, it is created on the first call for a state of an expansion.
+     * <p>
+     *     The move is made on a bitboard of the position of the parent and the turn is passed,
+     *     the function has a time complexity of O(1) (and of the depth of the states that were not created yet on the path).
+     *     Several threads may create the same position, they all get an equal value.
+     * </p>
+     * @return the current position
+     */
+    public Position getPosition() {
+        Position position = this.position;
+        if (position == null) {
+            State parentState = this.parentState;
+            if (parentState == null) {
+                // another thread created the position (it is set before the parent is dropped)
+                return this.position;
+            }
+            BitBoard bitBoard = parentState.getPosition().toBitBoard();
+            bitBoard.makeMove(move);
+            bitBoard.switchTurn();
+            position = Position.of(bitBoard);
+            this.position = position;
+            this.parentState = null;
+        }
+        return position;
+    }
+
+    /**
+     * Sets the current position.
+     * @param position the new position to set
+     */
+    public void setPosition(Position position) {
+        this.position = position;
+        this.parentState = null;
+        this.key = position.zobristKey();
+    }
+
+    /**
+     * Returns the zobrist key of the current position, it does not create the position.
+     * @return the zobrist key of the current position
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Returns a new board built from the current position.
+     * @return a new board of the current position
      */
     public Board getBoard() {
-        return board;
+        return new Board(getPosition());
+    }
+
+    /**
+     * Returns the packed move that led to this state.
+     * @return the packed move (see Move)
+     */
+    public int getMove() {
+        return move;
     }
 
     /**
-     * Sets the current board state.
-     * @param board the new board state to set
+     * Sets the packed move that led to this state.
+     * @param move the packed move (see Move)
      */
-    public void setBoard(Board board) {
-        this.board = board;
+    public void setMove(int move) {
+        this.move = move;
+    }
+
+    /**
+     * Checks if the player that made the move to this state won the game.
+     * Only the player that moves can bring its own ball to the goal row.
+     * @return the number of the winner, or Board.IN_PROGRESS
+     */
+    public int checkStatus() {
+        Position position = getPosition();
+        int ball = playerNum == BitBoard.WHITE ? position.whiteBall() : position.blackBall();
+        if (BitBoard.row(ball) == BitBoard.goalRow(playerNum))
+            return playerNum;
+        return Board.IN_PROGRESS;
     }
 
     /**
@@ -123,121 +265,145 @@ public class State {
 
 
     /**
-     * Returns a list of all possible states that can result from moving a given cell
-     * on the current board.
+     * Returns a list of all possible states that can result from any move of the player to move.
+     * <p>
+     *     Only the moves are generated, every state holds its move and this state
+     *     and creates its position on its first visit (see getPosition).
      * <p>
-     *     Runtime efficiency: O(n^2) where n is the number of available positions
-     *     on the board (in the worst case, every available position results
-     *     in a valid move).
+     *     Runtime efficiency: O(n) where n is the number of moves.
      * <p>
-     *     Memory efficiency: O(n) where n is the number of available positions
-     *     on the board (the list of possible states is stored in memory).
+     *     Memory efficiency: O(n) where n is the number of moves
+     *     (the list of possible states is stored in memory).
      * </p>
-     * @param cell The cell to move on the board.
      * @return A list of possible resulting states.
      */
-    public List<State> getAllPossibleStates(Cell cell) {
-        List<State> possibleStates = new ArrayList<>();
-        // Get a list of available positions on the board.
-        List<Cell> availablePositions = this.board.getAvailablePositions(cell);
-        // Iterate over the available positions, creating new boards and players
-        // for each move and adding resulting states to the list.
-        for (Cell availablePosition : availablePositions) {
-            Board newBoard = new Board(this.board);
-            Player newPlayer = new Player(this.board.getCurrPlayer());
-            newBoard.setCurrPlayer(newPlayer);
-            // If the move is valid, create a new state and add it to the list.
-            if (newPlayer.makeMove(newBoard.getBoard(), cell, availablePosition)) {
-                State newState = new State(newBoard);
-                newState.setPlayerNum(3 - this.playerNum);
-                possibleStates.add(newState);
-            }
+    public List<State> getAllPossibleStates() {
+        int[] moves = new int[Move.MAX_MOVES];
+        int moveCount = getPosition().toBitBoard().generateMoves(moves);
+        List<State> possibleStates = new ArrayList<>(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            State newState = new State(this, moves[i]);
+            newState.setPlayerNum(3 - this.playerNum);
+            possibleStates.add(newState);
         }
         return possibleStates;
     }
 
     /**
-     * This method increments the visit count of a node.
+     * Returns the number of simulations in which the move of this state was played
+     * by the same player after the parent state (all moves as first).
+     * @return the AMAF visit count of this state
      */
-    void incrementVisit() {
-        this.visitCount++;
+    public int getAmafVisitCount() {
+        return amafVisitCount;
     }
 
     /**
-     * Adds the given score to the total win score of the node.
-     * @param score the score to be added to the total win score of the node
+     * Returns the total score of the simulations that are counted by getAmafVisitCount.
+     * @return the AMAF win score of this state
      */
-    void addScore(double score) {
-        if (this.winScore != Integer.MIN_VALUE)
-            this.winScore += score;
+    public double getAmafWinScore() {
+        return amafWinScore;
     }
 
+    /**
+     * Returns the proven value of the state for the player that made the move to it (MCTS-Solver):
+     * PROVEN_WIN if that player wins whatever the opponent does (the game is won, or every reply loses),
+     * PROVEN_LOSS if the opponent has a move that wins, and UNPROVEN otherwise.
+     * A proven value is a fact about the position, so every thread and every tree that proves it gets the same value.
+     * @return the proven value of this state
+     */
+    public int getProven() {
+        return proven;
+    }
 
+    /**
+     * @return : true if the value of this state is proven (a win or a loss)
+     */
+    public boolean isProven() {
+        return proven != UNPROVEN;
+    }
 
+    /**
+     * Sets the proven value of the state.
+     * @param proven PROVEN_WIN or PROVEN_LOSS for the player that made the move to this state
+     */
+    void setProven(int proven) {
+        this.proven = proven;
+    }
 
     /**
-     * Performs a random play from a given node.
-     * <p>
-     *      Precondition: the given node must have a non-null state object.
-     * </p>
-     * <p>
-     *      Post-condition: the state of the given node will be updated to reflect the random play.
-     * </p>
-     * <p>
-     *      If there are no possible moves from the current state,
-     *      the state remains unchanged.
-     * </p>
-     * <p>
-     *     This method selects a random available position on the board
-     *     and moves a player piece to that position.
-     * </p>
-     * <p>
-     *     If there are multiple player pieces available,
-     *     it randomly selects one of them and checks for available positions.
-     * </p>
-     * <p>
-     *     If the move is valid, the state of the node is updated to reflect
-     *     the new board state after the move.
-     * </p>
-     * <p>
-     *     This method does not return any values.
-     * </p>
-     * <p>
-     *     Time complexity: O(N), where N is the number of available positions on
-     *     the board from the current state.
-     * </p>
-     * <p>
-     *     Memory complexity: O(N), where N is the number of available positions on
-     *     the board from the current state.
-     * </p>
-     * @param node the node from which the random play will start.
-     */
-    public void randomPlay(Node node) {
-        // Get available positions for all player pieces
-        List<Cell> availablePositions = new ArrayList<>();
-        Cell[] cells = node.getState().getBoard().getCurrPlayer().getPieces();
-        for (Cell cell : cells) {
-            availablePositions.addAll(this.board.getAvailablePositions(cell));
-        }
+     * Returns the number of search threads that are running an iteration through this state.
+     * @return the virtual loss of this state
+     */
+    public int getVirtualLoss() {
+        return virtualLoss;
+    }
+
+    /**
+     * This method increments the visit count of a node.
+     */
+    void incrementVisit() {
+        VISIT_COUNT.getAndAdd(this, 1);
+    }
 
-        // Shuffle the available positions randomly
-        Collections.shuffle(availablePositions);
+    /**
+     * Adds the given score to the total win score of the node.
+     * @param score the score to be added to the total win score of the node
+     */
+    void addScore(double score) {
+        double current = this.winScore;
+        while (!WIN_SCORE.weakCompareAndSet(this, current, current + score)) {
+            current = this.winScore;
+        }
+    }
 
+    /**
+     * Adds a simulation in which the move of this state was played later by the same player
+     * to the AMAF statistics of the state.
+     * @param score the score of the simulation for the player of this state
+     */
+    void addAmafResult(double score) {
+        AMAF_VISIT_COUNT.getAndAdd(this, 1);
+        addAmafScore(score);
+    }
 
-        // Try moving to the available positions in random order
-        for (Cell selectedCell : availablePositions) {
-            for (Cell cell : cells) {
-                if (this.board.getAvailablePositions(cell).contains(selectedCell)) {
-                    if (this.board.getCurrPlayer().makeMove(this.board.getBoard(), cell, selectedCell)) {
-                        node.getState().setBoard(this.board);
-                        return;
-                    }
-                }
-            }
+    // Adds to the AMAF win score with a compare and set loop
+    private void addAmafScore(double score) {
+        double current = this.amafWinScore;
+        while (!AMAF_WIN_SCORE.weakCompareAndSet(this, current, current + score)) {
+            current = this.amafWinScore;
         }
     }
 
+    /**
+     * Adds a virtual loss to the state, a search thread that goes through the state
+     * makes it look worse to the other threads until its iteration is back propagated.
+     */
+    void addVirtualLoss() {
+        VIRTUAL_LOSS.getAndAdd(this, 1);
+    }
+
+    /**
+     * Removes a virtual loss that was added by addVirtualLoss.
+     */
+    void removeVirtualLoss() {
+        VIRTUAL_LOSS.getAndAdd(this, -1);
+    }
 
+    /**
+     * Adds the visits, the score and the AMAF statistics of another state of the same position to this state.
+     * A value that the other state proved is kept.
+     * @param state the state to add
+     */
+    void merge(State state) {
+        AMAF_VISIT_COUNT.getAndAdd(this, state.amafVisitCount);
+        addAmafScore(state.amafWinScore);
+        VISIT_COUNT.getAndAdd(this, state.visitCount);
+        addScore(state.winScore);
+        if (state.proven != UNPROVEN)
+            this.proven = state.proven;
+    }
 
     /**
      * Switches the current player.
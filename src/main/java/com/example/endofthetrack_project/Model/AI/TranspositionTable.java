@@ -0,0 +1,167 @@
+package com.example.endofthetrack_project.Model.AI;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The TranspositionTable class holds the search statistics of positions by their zobrist key,
+ * so nodes of the same position that were reached by different move orders share their visits and score.
+ * <p>
+ *     It is a fixed size open addressing table: a key is looked for in PROBES slots from the slot of its hash,
+ *     an empty slot is taken with a compare and set on the key, and when all the slots are taken
+ *     the slot with the fewest visits is replaced.
+ *     The visits and the score of a slot are packed in a single long (visits in the high 32 bits
+ *     and the float bits of the score in the low 32 bits) and updated with a compare and set,
+ *     so the table can be used by several search threads without a lock.
+ * </p>
+ * <p>
+ *     A slot that is replaced while another thread updates it may get one update of the old position,
+ *     the table does not lock to prevent it since the error is a single playout.
+ * </p>
+ */
+public class TranspositionTable {
+
+    // The number of slots where a key is looked for
+    private static final int PROBES = 4;
+    // The number of bytes of a slot (the key and the packed statistics)
+    private static final int BYTES_PER_SLOT = 2 * Long.BYTES;
+    // The key that marks an empty slot, a position with this key is stored as EMPTY_KEY_REPLACEMENT
+    private static final long EMPTY = 0;
+    private static final long EMPTY_KEY_REPLACEMENT = 1;
+
+    private final AtomicLongArray keys;
+    private final AtomicLongArray entries;
+    private final int mask;
+
+    /**
+     * Constructs a table that takes at most the given memory.
+     * @param megabytes the memory of the table in megabytes, the number of slots is the
+     *                  largest power of two that fits in it (at least PROBES)
+     */
+    public TranspositionTable(int megabytes) {
+        long slots = Math.max(PROBES, (long) megabytes * 1024 * 1024 / BYTES_PER_SLOT);
+        int capacity = Integer.highestOneBit((int) Math.min(slots, 1 << 30));
+        this.keys = new AtomicLongArray(capacity);
+        this.entries = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the number of slots of the table.
+     * @return the capacity of the table
+     */
+    public int getCapacity() {
+        return keys.length();
+    }
+
+    /**
+     * Returns the packed statistics of a position.
+     * <p>
+     *     The function has a time complexity of O(PROBES) and allocates nothing.
+     * </p>
+     * @param key the zobrist key of the position
+     * @return the packed statistics (see visits and score), or 0 if the position is not in the table
+     */
+    public long getEntry(long key) {
+        key = storedKey(key);
+        int index = (int) key & mask;
+        for (int i = 0; i < PROBES; i++) {
+            int slot = (index + i) & mask;
+            long slotKey = keys.get(slot);
+            if (slotKey == key) {
+                return entries.get(slot);
+            }
+            if (slotKey == EMPTY) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Adds a visit and the given score to a position, the position is stored if it is not in the table.
+     * <p>
+     *     The function has a time complexity of O(PROBES) (and of the retries of a contended compare and set)
+     *     and allocates nothing.
+     * </p>
+     * @param key the zobrist key of the position
+     * @param score the score to add
+     */
+    public void add(long key, double score) {
+        int slot = findOrStore(storedKey(key));
+        long entry;
+        long newEntry;
+        do {
+            entry = entries.get(slot);
+            newEntry = pack(visits(entry) + 1, score(entry) + score);
+        } while (!entries.compareAndSet(slot, entry, newEntry));
+    }
+
+    /**
+     * Removes all the positions from the table.
+     */
+    public void clear() {
+        for (int slot = 0; slot < keys.length(); slot++) {
+            keys.set(slot, EMPTY);
+            entries.set(slot, 0);
+        }
+    }
+
+    // Finds the slot of a key, takes an empty slot or replaces the slot with the fewest visits
+    private int findOrStore(long key) {
+        int index = (int) key & mask;
+        while (true) {
+            int victim = index;
+            long victimKey = keys.get(index);
+            for (int i = 0; i < PROBES; i++) {
+                int slot = (index + i) & mask;
+                long slotKey = keys.get(slot);
+                if (slotKey == key) {
+                    return slot;
+                }
+                if (slotKey == EMPTY) {
+                    if (keys.compareAndSet(slot, EMPTY, key)) {
+                        return slot;
+                    }
+                    // another thread took the slot, check it again
+                    slotKey = keys.get(slot);
+                    if (slotKey == key) {
+                        return slot;
+                    }
+                }
+                if (visits(entries.get(slot)) < visits(entries.get(victim))) {
+                    victim = slot;
+                    victimKey = slotKey;
+                }
+            }
+            if (keys.compareAndSet(victim, victimKey, key)) {
+                entries.set(victim, 0);
+                return victim;
+            }
+        }
+    }
+
+    // A key of 0 would look like an empty slot
+    private static long storedKey(long key) {
+        return key == EMPTY ? EMPTY_KEY_REPLACEMENT : key;
+    }
+
+    private static long pack(int visits, double score) {
+        return ((long) visits << 32) | (Float.floatToRawIntBits((float) score) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param entry : the packed statistics of a position
+     * @return : the number of visits of the position
+     */
+    public static int visits(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    /**
+     * @param entry : the packed statistics of a position
+     * @return : the total score of the position
+     */
+    public static double score(long entry) {
+        return Float.intBitsToFloat((int) entry);
+    }
+}
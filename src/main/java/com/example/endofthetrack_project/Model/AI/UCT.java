@@ -1,7 +1,6 @@
 package com.example.endofthetrack_project.Model.AI;
 
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.List;
 
 /**
  * The UCT class is used to provide a method for the AI player
@@ -24,18 +23,108 @@ public class UCT {
                 1.41 * Math.sqrt(Math.log(totalVisit) / (double) nodeVisit);
     }
 
+    /**
+     * Calculates the UCT value for a given node with its all moves as first (AMAF) statistics blended in (RAVE).
+     * <p>
+     *     The value of the node is (1 - beta) * its mean score + beta * its AMAF mean score,
+     *     where beta = sqrt(k / (3 * nodeVisit + k)) and k is the RAVE equivalence:
+     *     a node with few visits is valued mostly by its AMAF statistics (which get many more updates)
+     *     and beta decays as its own visits grow, it is 1/2 at k visits.
+     *     A node that was not visited is still selected first, among them the one with the best AMAF mean.
+     * </p>
+     * @param totalVisit the total number of visits to the parent node
+     * @param nodeWinScore the total win score of the node
+     * @param nodeVisit the number of visits to the node
+     * @param amafWinScore the total AMAF win score of the node
+     * @param amafVisit the number of AMAF updates of the node
+     * @param raveEquivalence the number of visits at which both means have the same weight (k), 0 for plain UCT
+     * @return the calculated UCT value for the node
+     */
+    public static double uctValue(int totalVisit, double nodeWinScore, int nodeVisit,
+                                  double amafWinScore, int amafVisit, int raveEquivalence) {
+        if (raveEquivalence == 0 || amafVisit == 0) {
+            return uctValue(totalVisit, nodeWinScore, nodeVisit);
+        }
+        double amafValue = amafWinScore / (double) amafVisit;
+        if (nodeVisit == 0) {
+            return Integer.MAX_VALUE + amafValue;
+        }
+        double beta = Math.sqrt(raveEquivalence / (3.0 * nodeVisit + raveEquivalence));
+        return (1 - beta) * (nodeWinScore / (double) nodeVisit) + beta * amafValue +
+                1.41 * Math.sqrt(Math.log(totalVisit) / (double) nodeVisit);
+    }
+
     /**
      * Finds the child node with the maximum UCT value of a given node.
+     * <p>
+     *     Every virtual loss of a node (a search thread that is running an iteration through it)
+     *     counts as a visit that was lost, so other threads that share the tree prefer other nodes.
+     * </p>
+     * <p>
+     *     A child whose value is proven (see State.getProven) is not valued by its statistics:
+     *     a proven win of the player to move is chosen at once and a proven loss is never chosen,
+     *     unless every child is a proven loss.
+     * </p>
+     * @param node the parent node to evaluate
+     * @param raveEquivalence the RAVE equivalence of the AMAF statistics (see uctValue), 0 for plain UCT
+     * @return the child node with the maximum UCT value
+     */
+    static Node findBestNodeWithUCT(Node node, int raveEquivalence) {
+        return findBestNodeWithUCT(node, null, raveEquivalence);
+    }
+
+    /**
+     * Finds the child node with the maximum UCT value of a given node,
+     * with the statistics of the positions in a transposition table (UCT on the graph of positions).
+     * <p>
+     *     The visits and score of a node are those of its position in the table,
+     *     which include the playouts of every node of the same position,
+     *     a node that is not in the table uses its own statistics.
+     *     Proven children and virtual losses are handled as in findBestNodeWithUCT(Node, int).
+     * </p>
      * @param node the parent node to evaluate
+     * @param table the transposition table, or null to use the statistics of the nodes
+     * @param raveEquivalence the RAVE equivalence of the AMAF statistics (see uctValue), 0 for plain UCT
      * @return the child node with the maximum UCT value
      */
-    static Node findBestNodeWithUCT(Node node) {
-        int parentVisit = node.getState().getVisitCount();
-        return Collections.max(
-                node.getChildArray(),
-                Comparator.comparing(c ->
-                        uctValue(parentVisit, c.getState().getWinScore(),
-                                c.getState().getVisitCount())));
+    static Node findBestNodeWithUCT(Node node, TranspositionTable table, int raveEquivalence) {
+        State parentState = node.getState();
+        int parentVisit = parentState.getVisitCount();
+        if (table != null) {
+            parentVisit = Math.max(parentVisit, TranspositionTable.visits(table.getEntry(parentState.getKey())));
+        }
+        parentVisit += parentState.getVirtualLoss();
+        List<Node> children = node.getChildArray();
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Node child : children) {
+            State state = child.getState();
+            int proven = state.getProven();
+            if (proven == State.PROVEN_WIN) {
+                return child;
+            }
+            if (proven == State.PROVEN_LOSS) {
+                continue;
+            }
+            int visits = state.getVisitCount();
+            double score = state.getWinScore();
+            if (table != null) {
+                long entry = table.getEntry(state.getKey());
+                if (TranspositionTable.visits(entry) > visits) {
+                    visits = TranspositionTable.visits(entry);
+                    score = TranspositionTable.score(entry);
+                }
+            }
+            int virtualLoss = state.getVirtualLoss();
+            double value = uctValue(parentVisit, score - virtualLoss * MCTSPlayer.WIN_SCORE, visits + virtualLoss,
+                    state.getAmafWinScore(), state.getAmafVisitCount(), raveEquivalence);
+            if (best == null || value > bestValue) {
+                best = child;
+                bestValue = value;
+            }
+        }
+        // every child is a proven loss (the node is proven, or is being proven by another thread)
+        return best != null ? best : children.get(0);
     }
 
 }
@@ -0,0 +1,26 @@
+package com.example.endofthetrack_project.Model.AI;
+
+import com.example.endofthetrack_project.Model.BitBoard;
+
+import java.util.Random;
+
+/**
+ * The UniformRolloutPolicy class chooses every legal move with the same probability.
+ */
+public class UniformRolloutPolicy implements RolloutPolicy {
+
+    /**
+     * The shared instance of the policy
+     */
+    public static final UniformRolloutPolicy INSTANCE = new UniformRolloutPolicy();
+
+    @Override
+    public int chooseMove(BitBoard bitBoard, int[] moves, int moveCount, int[] weights, Random random) {
+        return moves[random.nextInt(moveCount)];
+    }
+
+    @Override
+    public String toString() {
+        return "uniform";
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.endofthetrack_project.Model.AI;
+
+import com.example.endofthetrack_project.Model.BitBoard;
+import com.example.endofthetrack_project.Model.Move;
+import com.example.endofthetrack_project.Model.MoveTables;
+
+import java.util.Random;
+
+/**
+ * The WeightedRolloutPolicy class chooses the moves of a playout with weights that favor progress.
+ * <p>
+ *     The weight of a move is read from tables that are computed once for every player, source and target square:
+ *     a knight move weighs more the more rows it jumps toward the goal row of the player,
+ *     and a pass weighs more the more rows it moves the ball toward the goal row
+ *     (a pass to the goal row wins and weighs far more than any other move).
+ *     A knight move to an empty square that the ball of the player can be passed to
+ *     (a passing lane that no knight of the opponent blocks) has its weight doubled.
+ * </p>
+ * <p>
+ *     A move is sampled by its cumulative weight, the function has a time complexity of O(n),
+ *     where n is the number of moves, and allocates nothing.
+ * </p>
+ */
+public class WeightedRolloutPolicy implements RolloutPolicy {
+
+    /**
+     * The shared instance of the policy
+     */
+    public static final WeightedRolloutPolicy INSTANCE = new WeightedRolloutPolicy();
+
+    // The weight of a move to the goal row of the player
+    private static final int WINNING_PASS_WEIGHT = 1000;
+    // The weights of the moves by player (id - 1) and by source * SQUARES + target
+    private static final int[][] KNIGHT_WEIGHTS = new int[2][BitBoard.SQUARES * BitBoard.SQUARES];
+    private static final int[][] PASS_WEIGHTS = new int[2][BitBoard.SQUARES * BitBoard.SQUARES];
+
+    static {
+        for (int player = BitBoard.WHITE; player <= BitBoard.BLACK; player++) {
+            int forward = BitBoard.goalRow(player) == 0 ? -1 : 1;
+            for (int from = 0; from < BitBoard.SQUARES; from++) {
+                for (int to = 0; to < BitBoard.SQUARES; to++) {
+                    // the number of rows the move goes toward the goal row (negative if it goes back)
+                    int progress = (BitBoard.row(to) - BitBoard.row(from)) * forward;
+                    KNIGHT_WEIGHTS[player - 1][from * BitBoard.SQUARES + to] = Math.max(1, 3 + progress);
+                    PASS_WEIGHTS[player - 1][from * BitBoard.SQUARES + to] =
+                            BitBoard.row(to) == BitBoard.goalRow(player) ? WINNING_PASS_WEIGHT : Math.max(1, 2 + 2 * progress);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int chooseMove(BitBoard bitBoard, int[] moves, int moveCount, int[] weights, Random random) {
+        int player = bitBoard.getCurrPlayer();
+        // the empty squares the ball of the player can be passed to from where it is
+        long lanes = MoveTables.passReach(bitBoard.getBall(player), bitBoard.getKnights(BitBoard.opponent(player)))
+                & ~bitBoard.getOccupancy();
+        int total = 0;
+        for (int i = 0; i < moveCount; i++) {
+            int move = moves[i];
+            int index = Move.from(move) * BitBoard.SQUARES + Move.to(move);
+            int weight;
+            if (Move.isPass(move)) {
+                weight = PASS_WEIGHTS[player - 1][index];
+            }
+            else {
+                weight = KNIGHT_WEIGHTS[player - 1][index];
+                if ((lanes & BitBoard.bit(Move.to(move))) != 0) {
+                    weight *= 2;
+                }
+            }
+            total += weight;
+            weights[i] = total;
+        }
+        // the first move whose cumulative weight is above a random number below the total weight
+        int target = random.nextInt(total);
+        int i = 0;
+        while (weights[i] <= target) {
+            i++;
+        }
+        return moves[i];
+    }
+
+    @Override
+    public String toString() {
+        return "weighted";
+    }
+}
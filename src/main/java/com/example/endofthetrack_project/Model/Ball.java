@@ -13,8 +13,8 @@ public class Ball extends Piece {
      * @param color : the color of ball
      * @param id : the ball id
      */
-    public Ball(String color, int id) {
-        super(color, id);
+    public Ball(byte color, int id) {
+        super(color, BALL, id);
     }
 
     public Ball(Ball ball) {
@@ -94,7 +94,7 @@ public class Ball extends Piece {
                 if (!board[y][x].isEmpty()) {
                     Piece piece = board[y][x].getPiece().iterator().next();
                     // Opponent piece blocking the way
-                    foundOpponent = !(piece.getColor().equals(this.getColor()) || piece.getColor().equals("none"));// Same-color piece blocking the way
+                    foundOpponent = !(piece.getColor() == this.getColor() || piece.getColor() == NONE);// Same-color piece blocking the way
                 }
                 x += dx;
                 y += dy;
@@ -110,7 +110,7 @@ public class Ball extends Piece {
 
     @Override
     public String toString() {
-        return super.getId() + " " + super.getColor();
+        return super.getId() + " " + colorName(super.getColor());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,511 @@
+package com.example.endofthetrack_project.Model;
+
+/**
+ * BitBoard class represents a compact position of the game.
+ * <p>
+ *     Every square of the 7x8 board gets an index (row * WIDTH + column),
+ *     so the knights of each player fit in a single long
+ *     and each ball is stored as the index of the square it is on.
+ *     The class implements the same rules as Knight.validMove, Ball.validMove and Player.isWinner
+ *     without walking cells or comparing colors.
+ * </p>
+ * @author maor
+ */
+public class BitBoard {
+
+    /**
+     * the attributes of the BitBoard
+     */
+    public static final int WIDTH = 7;
+    public static final int HEIGHT = 8;
+    public static final int SQUARES = WIDTH * HEIGHT;
+    public static final long ALL_SQUARES = (1L << SQUARES) - 1;
+    public static final int WHITE = 1;
+    public static final int BLACK = 2;
+
+    private long whiteKnights;
+    private long blackKnights;
+    private byte whiteBall;
+    private byte blackBall;
+    private int currPlayer;
+    // the zobrist key of the position, updated by every move and turn switch
+    private long zobristKey;
+    // the id of the player whose ball is on its goal row (Board.IN_PROGRESS if none), updated by every pass
+    private int winner;
+
+    /**
+     * initialize the bitboard to the start position of the game
+     */
+    public BitBoard() {
+        for (int i = 1; i < WIDTH - 1; i++) {
+            this.whiteKnights |= bit(square(i, HEIGHT - 1));
+            this.blackKnights |= bit(square(i, 0));
+        }
+        this.whiteBall = (byte) square(WIDTH / 2, HEIGHT - 1);
+        this.blackBall = (byte) square(WIDTH / 2, 0);
+        this.currPlayer = WHITE;
+        this.zobristKey = Zobrist.compute(whiteKnights, blackKnights, whiteBall, blackBall, currPlayer);
+        this.winner = computeWinner();
+    }
+
+    /**
+     * initialize the bitboard from its parts
+     * @param whiteKnights : the squares of the white knights
+     * @param blackKnights : the squares of the black knights
+     * @param whiteBall : the square of the white ball
+     * @param blackBall : the square of the black ball
+     * @param currPlayer : the id of the player to move
+     */
+    public BitBoard(long whiteKnights, long blackKnights, int whiteBall, int blackBall, int currPlayer) {
+        set(whiteKnights, blackKnights, whiteBall, blackBall, currPlayer);
+    }
+
+    /**
+     * Creates a new BitBoard object as a copy of the specified BitBoard object.
+     *
+     * @param bitBoard the BitBoard object to copy
+     */
+    public BitBoard(BitBoard bitBoard) {
+        set(bitBoard);
+    }
+
+    /**
+     * set the bitboard to a position from its parts, so a bitboard can be reused without an allocation
+     * @param whiteKnights : the squares of the white knights
+     * @param blackKnights : the squares of the black knights
+     * @param whiteBall : the square of the white ball
+     * @param blackBall : the square of the black ball
+     * @param currPlayer : the id of the player to move
+     */
+    public void set(long whiteKnights, long blackKnights, int whiteBall, int blackBall, int currPlayer) {
+        this.whiteKnights = whiteKnights;
+        this.blackKnights = blackKnights;
+        this.whiteBall = (byte) whiteBall;
+        this.blackBall = (byte) blackBall;
+        this.currPlayer = currPlayer;
+        this.zobristKey = Zobrist.compute(whiteKnights, blackKnights, whiteBall, blackBall, currPlayer);
+        this.winner = computeWinner();
+    }
+
+    /**
+     * set the bitboard to the position of another bitboard in O(1)
+     * @param bitBoard : the bitboard to copy
+     */
+    public void set(BitBoard bitBoard) {
+        this.whiteKnights = bitBoard.whiteKnights;
+        this.blackKnights = bitBoard.blackKnights;
+        this.whiteBall = bitBoard.whiteBall;
+        this.blackBall = bitBoard.blackBall;
+        this.currPlayer = bitBoard.currPlayer;
+        this.zobristKey = bitBoard.zobristKey;
+        this.winner = bitBoard.winner;
+    }
+
+    /**
+     * @param x : the column of the square
+     * @param y : the row of the square
+     * @return : the index of the square
+     */
+    public static int square(int x, int y) {
+        return y * WIDTH + x;
+    }
+
+    /**
+     * @param square : the index of the square
+     * @return : the column of the square
+     */
+    public static int column(int square) {
+        return square % WIDTH;
+    }
+
+    /**
+     * @param square : the index of the square
+     * @return : the row of the square
+     */
+    public static int row(int square) {
+        return square / WIDTH;
+    }
+
+    /**
+     * @param square : the index of the square
+     * @return : a mask with only this square set
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * @param player : the id of the player
+     * @return : the id of the other player
+     */
+    public static int opponent(int player) {
+        return 3 - player;
+    }
+
+    /**
+     * @param player : the id of the player
+     * @return : the row the player has to bring the ball to
+     */
+    public static int goalRow(int player) {
+        return player == WHITE ? 0 : HEIGHT - 1;
+    }
+
+    public long getKnights(int player) {
+        return player == WHITE ? whiteKnights : blackKnights;
+    }
+
+    public int getBall(int player) {
+        return player == WHITE ? whiteBall : blackBall;
+    }
+
+    public long getOccupancy() {
+        return whiteKnights | blackKnights;
+    }
+
+    public int getCurrPlayer() {
+        return currPlayer;
+    }
+
+    public void setCurrPlayer(int currPlayer) {
+        if (this.currPlayer != currPlayer)
+            switchTurn();
+    }
+
+    /**
+     * @return : the 64 bit zobrist key of the position (see Zobrist)
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * switch the turns between the players
+     */
+    public void switchTurn() {
+        this.currPlayer = opponent(this.currPlayer);
+        this.zobristKey ^= Zobrist.SIDE;
+    }
+
+    /**
+     * @param square : the index of the square
+     * @return : the id of the player that has a knight on the square, 0 if the square is empty
+     */
+    public int getOwner(int square) {
+        long b = bit(square);
+        if ((whiteKnights & b) != 0)
+            return WHITE;
+        if ((blackKnights & b) != 0)
+            return BLACK;
+        return 0;
+    }
+
+    /**
+     * check if a knight move is valid by the knight moving rules (same as Knight.validMove)
+     * <p>
+     *     The function has a time complexity of O(1) and a memory complexity of O(1).
+     * </p>
+     * @param from : the source square
+     * @param to : the target square
+     * @return : is the move is valid (true) else (false)
+     */
+    public boolean validKnightMove(int from, int to) {
+        if (from < 0 || from >= SQUARES || to < 0 || to >= SQUARES)
+            return false;
+        return (knightTargets(from) & bit(to)) != 0;
+    }
+
+    /**
+     * get all the squares a knight can move to, using the precomputed knight table
+     * <p>
+     *     The function has a time complexity of O(1) and a memory complexity of O(1).
+     * </p>
+     * @param from : the square of the knight
+     * @return : the mask of the empty squares the knight can jump to
+     */
+    public long knightTargets(int from) {
+        return MoveTables.knightTargets(from, getOccupancy());
+    }
+
+    /**
+     * check if a ball pass is valid by the ball moving rules (same as Ball.validMove)
+     * <p>
+     *     The pass has to go along a row, a column or a diagonal to a knight of the player,
+     *     and only knights of the opponent block the way (the blocking knight can't get the ball).
+     *     The function has a time complexity of O(1) and a memory complexity of O(1).
+     * </p>
+     * @param player : the id of the player that owns the ball
+     * @param from : the source square
+     * @param to : the target square
+     * @return : is the move is valid (true) else (false)
+     */
+    public boolean validBallMove(int player, int from, int to) {
+        if (from < 0 || from >= SQUARES || to < 0 || to >= SQUARES)
+            return false;
+        long reach = MoveTables.passReach(from, getKnights(opponent(player)));
+        return (reach & getKnights(player) & bit(to)) != 0;
+    }
+
+    /**
+     * get all the knights of a player the ball can be passed to, using the precomputed rays
+     * <p>
+     *     The function has a time complexity of O(1) and a memory complexity of O(1).
+     * </p>
+     * @param player : the id of the player that owns the ball
+     * @return : the mask of the squares of the knights the ball can be passed to
+     */
+    public long passTargets(int player) {
+        return MoveTables.passReach(getBall(player), getKnights(opponent(player))) & getKnights(player);
+    }
+
+    /**
+     * generate all the moves of the current player into a buffer given by the caller
+     * <p>
+     *     The knight that holds the ball can't move, so only the other knights jump.
+     *     The function has a time complexity of O(n), where n is the number of moves,
+     *     and does not allocate memory.
+     * </p>
+     * @param moves : the buffer to fill with packed moves (at least Move.MAX_MOVES long)
+     * @return : the number of moves written to the buffer
+     */
+    public int generateMoves(int[] moves) {
+        int count = 0;
+        int ball = getBall(currPlayer);
+        long knights = getKnights(currPlayer) & ~bit(ball);
+        long occupancy = getOccupancy();
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            long targets = MoveTables.knightTargets(from, occupancy);
+            while (targets != 0) {
+                moves[count++] = Move.encode(from, Long.numberOfTrailingZeros(targets), false);
+                targets &= targets - 1;
+            }
+        }
+        long targets = passTargets(currPlayer);
+        while (targets != 0) {
+            moves[count++] = Move.encode(ball, Long.numberOfTrailingZeros(targets), true);
+            targets &= targets - 1;
+        }
+        return count;
+    }
+
+    /**
+     * generate the moves of the piece on one square into a buffer given by the caller
+     * (same as Board.getAvailablePositions)
+     * @param from : the square of the piece
+     * @param moves : the buffer to fill with packed moves (at least Move.MAX_MOVES long)
+     * @return : the number of moves written to the buffer
+     */
+    public int generateMoves(int from, int[] moves) {
+        int count = 0;
+        int owner = getOwner(from);
+        long targets;
+        boolean isPass = owner != 0 && getBall(owner) == from;
+        if (isPass)
+            targets = MoveTables.passReach(from, getKnights(opponent(owner))) & getKnights(currPlayer);
+        else
+            targets = MoveTables.knightTargets(from, getOccupancy());
+        while (targets != 0) {
+            moves[count++] = Move.encode(from, Long.numberOfTrailingZeros(targets), isPass);
+            targets &= targets - 1;
+        }
+        return count;
+    }
+
+    /**
+     * check if a packed move is valid for the current player
+     * <p>
+     *     The source square has to hold a knight of the current player.
+     *     If it also holds the ball of the current player the move has to be a valid pass,
+     *     otherwise it has to be a valid knight move.
+     * </p>
+     * @param move : the packed move
+     * @return : is the move is valid (true) else (false)
+     */
+    public boolean validMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (from >= SQUARES || to >= SQUARES || getOwner(from) != currPlayer)
+            return false;
+        if (getBall(currPlayer) == from)
+            return Move.isPass(move) && validBallMove(currPlayer, from, to);
+        return !Move.isPass(move) && validKnightMove(from, to);
+    }
+
+    /**
+     * make a move on the position, the move is not checked
+     * <p>
+     *     A knight move moves the knight of the player that owns the source square,
+     *     a pass moves the ball that is on the source square.
+     *     The function has a time complexity of O(1) and a memory complexity of O(1).
+     * </p>
+     * @param move : the packed move
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (Move.isPass(move)) {
+            if (whiteBall == from) {
+                whiteBall = (byte) to;
+                zobristKey ^= Zobrist.BALL[0][from] ^ Zobrist.BALL[0][to];
+                if (winner == Board.IN_PROGRESS && row(to) == goalRow(WHITE))
+                    winner = WHITE;
+            }
+            else {
+                blackBall = (byte) to;
+                zobristKey ^= Zobrist.BALL[1][from] ^ Zobrist.BALL[1][to];
+                if (winner == Board.IN_PROGRESS && row(to) == goalRow(BLACK))
+                    winner = BLACK;
+            }
+        }
+        else {
+            long fromTo = bit(from) | bit(to);
+            if ((whiteKnights & bit(from)) != 0) {
+                whiteKnights ^= fromTo;
+                zobristKey ^= Zobrist.KNIGHT[0][from] ^ Zobrist.KNIGHT[0][to];
+            }
+            else {
+                blackKnights ^= fromTo;
+                zobristKey ^= Zobrist.KNIGHT[1][from] ^ Zobrist.KNIGHT[1][to];
+            }
+        }
+    }
+
+    /**
+     * take back a move that was made by makeMove
+     * <p>
+     *     The function has a time complexity of O(1) and a memory complexity of O(1).
+     * </p>
+     * @param move : the packed move
+     */
+    public void unmakeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if (Move.isPass(move)) {
+            if (whiteBall == to) {
+                whiteBall = (byte) from;
+                zobristKey ^= Zobrist.BALL[0][from] ^ Zobrist.BALL[0][to];
+            }
+            else {
+                blackBall = (byte) from;
+                zobristKey ^= Zobrist.BALL[1][from] ^ Zobrist.BALL[1][to];
+            }
+            winner = computeWinner();
+        }
+        else {
+            long fromTo = bit(from) | bit(to);
+            if ((whiteKnights & bit(to)) != 0) {
+                whiteKnights ^= fromTo;
+                zobristKey ^= Zobrist.KNIGHT[0][from] ^ Zobrist.KNIGHT[0][to];
+            }
+            else {
+                blackKnights ^= fromTo;
+                zobristKey ^= Zobrist.KNIGHT[1][from] ^ Zobrist.KNIGHT[1][to];
+            }
+        }
+    }
+
+    /**
+     * the distance of the ball of a player from its goal row (as Board.getDistanceToGoal)
+     * <p>
+     *     The distance is the number of rows to the goal row and one more for every piece
+     *     on the column of the ball between the ball and the goal row.
+     *     Board.getDistanceToGoal counts the pieces only for the white ball, here they are counted for both balls.
+     *     The function has a time complexity of O(1) and a memory complexity of O(1).
+     * </p>
+     * @param player : the id of the player
+     * @return : the distance of the ball from the goal row
+     */
+    public int getDistanceToGoal(int player) {
+        int ball = getBall(player);
+        int goalRow = goalRow(player);
+        int rows = Math.abs(row(ball) - goalRow);
+        if (rows <= 1)
+            return rows;
+        // the squares of the column strictly between the ball and the goal row,
+        // the ray down (0, 1) or up (0, -1) the column from the ball without the ray from the goal square
+        int direction = goalRow > row(ball) ? 2 : 6;
+        int goal = square(column(ball), goalRow);
+        long between = MoveTables.RAYS[direction][ball] & ~MoveTables.RAYS[direction][goal] & ~bit(goal);
+        return rows + Long.bitCount(between & getOccupancy());
+    }
+
+    /**
+     * check for win of a player (same as Player.isWinner)
+     * @param player : the id of the player
+     * @return : if the ball of the player is on its goal row
+     */
+    public boolean isWinner(int player) {
+        return row(getBall(player)) == goalRow(player);
+    }
+
+    /**
+     * @return : the id of the player that won the game, or Board.IN_PROGRESS if no one did
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * @return : if the ball of one of the players is on its goal row (true) else (false)
+     */
+    public boolean isGameOver() {
+        return winner != Board.IN_PROGRESS;
+    }
+
+    /**
+     * check the status of the game (player 1 win, player 2 win, game in progress)
+     * <p>
+     *     The winner is kept up to date by makeMove and unmakeMove,
+     *     so the function has a time complexity of O(1) and a memory complexity of O(1).
+     * </p>
+     * @return : value of the current status of the game
+     */
+    public int checkStatus() {
+        return winner;
+    }
+
+    // find the winner from the squares of the balls, white first as white moves first
+    private int computeWinner() {
+        if (isWinner(WHITE))
+            return WHITE;
+        if (isWinner(BLACK))
+            return BLACK;
+        return Board.IN_PROGRESS;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BitBoard bitBoard)) return false;
+        return zobristKey == bitBoard.zobristKey && whiteKnights == bitBoard.whiteKnights && blackKnights == bitBoard.blackKnights &&
+                whiteBall == bitBoard.whiteBall && blackBall == bitBoard.blackBall &&
+                currPlayer == bitBoard.currPlayer;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobristKey);
+    }
+
+    /**
+     * @return : string that represent the current position
+     */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int sq = square(x, y);
+                char c = '.';
+                if ((whiteKnights & bit(sq)) != 0)
+                    c = sq == whiteBall ? 'W' : 'w';
+                else if ((blackKnights & bit(sq)) != 0)
+                    c = sq == blackBall ? 'B' : 'b';
+                s.append(c);
+            }
+            s.append("\n");
+        }
+        return s.toString();
+    }
+}
@@ -14,10 +14,16 @@ public class Board {
     private static final int WIDTH = 7;
     private static final int HEIGHT = 8;
     public static final int IN_PROGRESS = -1;
+    private static final int UNDO_CAPACITY = 64;
     private Cell[][] board;
     private Player currPlayer;
     private ArrayList<Piece> pieces;
     private Player[] players;
+    // the same position as the cells, kept up to date by every move for fast move generation
+    private BitBoard bitBoard;
+    // the moves that were made by makeMove, so they can be taken back by unmakeMove
+    private int[] undoStack;
+    private int undoCount;
 
 
     /**
@@ -37,8 +43,18 @@ public class Board {
         this.players = new Player[2];
         initPlayers();
         buildBoard();
+        this.bitBoard = toBitBoard();
+        this.undoStack = new int[UNDO_CAPACITY];
     }
 
+    /**
+     * copy a board
+     * <p>
+     *     The players of the copy point to the cells of the copy.
+     *     The moves made on the original board are not copied, so they can't be taken back on the copy.
+     * </p>
+     * @param board : the board to copy
+     */
     public Board(Board board) {
         this.board = new Cell[HEIGHT][WIDTH];
         for (int i = 0; i < HEIGHT; i++) {
@@ -46,13 +62,67 @@ public class Board {
                 this.board[i][j] = new Cell(board.board[i][j]);
             }
         }
-        this.currPlayer = new Player(board.currPlayer);
         this.pieces = new ArrayList<>();
         this.pieces.addAll(board.pieces);
         this.players = new Player[2];
         for (int i = 0; i < board.players.length; i++) {
-            this.players[i] = new Player(board.players[i]);
+            this.players[i] = new Player(board.players[i], this.board);
+        }
+        this.currPlayer = this.players[board.currPlayer.getId() - 1];
+        this.bitBoard = new BitBoard(board.bitBoard);
+        this.undoStack = new int[UNDO_CAPACITY];
+    }
+
+    /**
+     * initialize the board from a bitboard position
+     * <p>
+     *     The knights of each player get their ids by the order of their squares,
+     *     so the ids match the indexes in the pieces array of the player.
+     *     The function has a time complexity of O(WIDTH * HEIGHT)
+     *     and a memory complexity of O(WIDTH * HEIGHT).
+     * </p>
+     * @param bitBoard : the position to build the board from
+     */
+    public Board(BitBoard bitBoard) {
+        this.board = new Cell[HEIGHT][WIDTH];
+        this.pieces = new ArrayList<>();
+        this.players = new Player[2];
+        initPlayers();
+        int[] count = new int[2];
+        for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+            int x = BitBoard.column(sq);
+            int y = BitBoard.row(sq);
+            Cell cell = new Cell(x, y);
+            this.board[y][x] = cell;
+            int owner = bitBoard.getOwner(sq);
+            if (owner == 0) {
+                cell.setPiece(new Knight(Piece.NONE, 0));
+                continue;
+            }
+            Player player = this.players[owner - 1];
+            int index = count[owner - 1]++;
+            Piece p = new Knight(player.getColor(), owner == BitBoard.WHITE ? index + 1 : index + 7);
+            cell.setPiece(p);
+            this.pieces.add(p);
+            player.getPieces()[index] = cell;
+            if (bitBoard.getBall(owner) == sq) {
+                cell.setPiece(new Ball(player.getColor(), owner == BitBoard.WHITE ? 6 : 12));
+                player.setBall(cell);
+            }
         }
+        this.currPlayer.setCurrent(false);
+        this.currPlayer = this.players[bitBoard.getCurrPlayer() - 1];
+        this.currPlayer.setCurrent(true);
+        this.bitBoard = new BitBoard(bitBoard);
+        this.undoStack = new int[UNDO_CAPACITY];
+    }
+
+    /**
+     * initialize the board from a position value
+     * @param position : the position to build the board from
+     */
+    public Board(Position position) {
+        this(position.toBitBoard());
     }
 
     /**
@@ -63,8 +133,8 @@ public class Board {
      * </p>
      */
     public void initPlayers() {
-        this.players[0] = new Player(1, "white");
-        this.players[1] = new Player(2, "black");
+        this.players[0] = new Player(1, Piece.WHITE);
+        this.players[1] = new Player(2, Piece.BLACK);
         this.currPlayer = players[0];
         this.currPlayer.setCurrent(true);
     }
@@ -89,7 +159,7 @@ public class Board {
         // initialize white pieces
         for (int i = 1; i < WIDTH - 1; i++) {
             this.board[HEIGHT - 1][i] = new Cell(i, HEIGHT - 1);
-            Piece p = new Knight("white", i);
+            Piece p = new Knight(Piece.WHITE, i);
             this.board[HEIGHT - 1][i].setPiece(p);
             this.pieces.add(p);
             this.players[0].getPieces()[i - 1] = this.board[HEIGHT - 1][i];
@@ -98,14 +168,14 @@ public class Board {
         // initialize black pieces
         for (int i = 1; i < WIDTH - 1; i++) {
             this.board[0][i] = new Cell(i, 0);
-            Piece p = new Knight("black", 6 + i);
+            Piece p = new Knight(Piece.BLACK, 6 + i);
             this.board[0][i].setPiece(p);
             this.pieces.add(p);
             this.players[1].getPieces()[i - 1] = this.board[0][i];
         }
         // initialize balls
-        Ball whiteBall = new Ball("white", 6);
-        Ball blackBall = new Ball("black", 12);
+        Ball whiteBall = new Ball(Piece.WHITE, 6);
+        Ball blackBall = new Ball(Piece.BLACK, 12);
         this.board[0][WIDTH / 2].setPiece(blackBall);
         this.board[HEIGHT - 1][WIDTH / 2].setPiece(whiteBall);
         this.players[0].setBall(this.board[HEIGHT - 1][WIDTH / 2]);
@@ -121,7 +191,7 @@ public class Board {
             for (int j = 0; j < WIDTH; j++) {
                 if (this.board[i][j] == null) {
                     this.board[i][j] = new Cell(j, i);
-                    this.board[i][j].setPiece(new Knight("none", 0));
+                    this.board[i][j].setPiece(new Knight(Piece.NONE, 0));
                 }
             }
         }
@@ -146,6 +216,7 @@ public class Board {
             this.currPlayer.setCurrent(true);
             players[1].setCurrent(false);
         }
+        this.bitBoard.setCurrPlayer(this.currPlayer.getId());
     }
 
     public Player getCurrPlayer() {
@@ -155,7 +226,8 @@ public class Board {
     /**
      * check if the piece in this cell is included in the pieces of the current player
      * <p>
-     *     This function checks if the piece in the cell at (row, col) is included in the pieces of the current player.
+     *     This function checks if the piece in the cell at (row, col) is included in the pieces of the current player
+     *     by the owner of the square in the bitboard, without searching the pieces of the player.
      *     It has a time complexity of O(1) and a memory complexity of O(1).
      * </p>
      * @param row : the row of the piece in the board
@@ -163,11 +235,20 @@ public class Board {
      * @return : if the piece in this cell is included in the pieces of the current player
      */
     public boolean validPosition(int row, int col) {
-        Cell cell = board[row][col];
-        if (cell.getPiece().size() == 2) {
-            return this.currPlayer.getBall().equals(cell);
+        int sq = BitBoard.square(col, row);
+        if (board[row][col].getPiece().size() == 2) {
+            return this.bitBoard.getBall(this.currPlayer.getId()) == sq;
         }
-        else return Arrays.asList(this.currPlayer.getPieces()).contains(cell);
+        else return this.bitBoard.getOwner(sq) == this.currPlayer.getId();
+    }
+
+    /**
+     * get the knight (or the empty piece) on a square in O(1)
+     * @param square : the index of the square (as in BitBoard)
+     * @return : the first piece of the cell of the square
+     */
+    public Piece getPiece(int square) {
+        return getCell(square).getPiece().get(0);
     }
 
     public Cell[][] getBoard() {
@@ -179,23 +260,35 @@ public class Board {
     }
 
     /**
-     * check for win of the current player
-     * @param p : the current player
+     * check for win of a player
+     * <p>
+     *     The winner is tracked by the bitboard mirror on every pass,
+     *     so the function has a time complexity of O(1) and a memory complexity of O(1).
+     * </p>
+     * @param p : the player
      * @return : if there is a win
      */
     public boolean isWinner (Player p) {
-        return p.isWinner();
+        return bitBoard.getWinner() == p.getId();
     }
 
     /**
      * check the status of the game (player 1 win, player 2 win, game in progress)
+     * <p>
+     *     The function reads the winner of the bitboard mirror for both players,
+     *     it has a time complexity of O(1) and a memory complexity of O(1).
+     * </p>
      * @return : value of the current status of the game
      */
     public int checkStatus() {
-        if (isWinner(currPlayer))
-            return currPlayer.getId();
-        else
-            return IN_PROGRESS;
+        return bitBoard.getWinner();
+    }
+
+    /**
+     * @return : if one of the players won the game (true) else (false)
+     */
+    public boolean isGameOver() {
+        return bitBoard.isGameOver();
     }
 
 
@@ -206,33 +299,184 @@ public class Board {
             }
         }
 //        this.board = newBoard;
+        this.bitBoard = toBitBoard();
     }
 
     public void setCurrPlayer(Player currPlayer) {
         this.currPlayer = currPlayer;
+        this.bitBoard.setCurrPlayer(currPlayer.getId());
+    }
+
+    /**
+     * @return : the bitboard of the current position, it must not be changed by the caller
+     */
+    public BitBoard getBitBoard() {
+        return bitBoard;
+    }
+
+    /**
+     * get the current position as an immutable value in O(1)
+     * @return : the position of the board
+     */
+    public Position toPosition() {
+        return Position.of(bitBoard);
+    }
+
+    /**
+     * get the 64 bit zobrist key of the position, it is updated on every move and turn switch
+     * so it can be used as the key of caches and transposition tables
+     * @return : the zobrist key of the current position
+     */
+    public long getZobristKey() {
+        return bitBoard.getZobristKey();
+    }
+
+    /**
+     * @param square : the index of the square (as in BitBoard)
+     * @return : the cell of the square
+     */
+    public Cell getCell(int square) {
+        return board[BitBoard.row(square)][BitBoard.column(square)];
+    }
+
+    /**
+     * generate all the moves of the current player as packed moves (see Move)
+     * <p>
+     *     This is the allocation free version of getAvailablePositions for all the pieces of the current player.
+     * </p>
+     * @param moves : the buffer to fill with packed moves (at least Move.MAX_MOVES long)
+     * @return : the number of moves written to the buffer
+     */
+    public int generateMoves(int[] moves) {
+        return bitBoard.generateMoves(moves);
+    }
+
+    /**
+     * generate the moves of the piece in a cell as packed moves (see Move)
+     * <p>
+     *     This is the allocation free version of getAvailablePositions.
+     * </p>
+     * @param cell : the cell of the piece
+     * @param moves : the buffer to fill with packed moves (at least Move.MAX_MOVES long)
+     * @return : the number of moves written to the buffer
+     */
+    public int generateMoves(Cell cell, int[] moves) {
+        return bitBoard.generateMoves(BitBoard.square(cell.getX(), cell.getY()), moves);
+    }
+
+    /**
+     * pack a move of the current player between two cells
+     * @param source : the source cell
+     * @param dest : the destination cell
+     * @return : the packed move, a pass if the source cell holds the ball of the current player
+     */
+    public int toMove(Cell source, Cell dest) {
+        int from = BitBoard.square(source.getX(), source.getY());
+        return Move.encode(from, BitBoard.square(dest.getX(), dest.getY()),
+                bitBoard.getBall(this.currPlayer.getId()) == from);
+    }
+
+    /**
+     * make a move of the current player between two cells
+     * <p>
+     *     Same as makeMove(int), and if the move is not valid the player gets the not valid message.
+     * </p>
+     * @param source : the source cell
+     * @param dest : the destination cell
+     * @return : If the move is done successfully
+     */
+    public boolean makeMove(Cell source, Cell dest) {
+        if (makeMove(toMove(source, dest)))
+            return true;
+        if (validPosition(source.getY(), source.getX()))
+            this.currPlayer.setNotValid("Illegal move try again");
+        return false;
+    }
+
+    /**
+     * make a packed move of the current player in place and remember it so it can be taken back
+     * <p>
+     *     The move is checked on the bitboard, then the pieces are moved between the cells
+     *     without copying anything: a knight move swaps the knight with the empty piece of the target cell,
+     *     and a pass moves the ball to the target cell.
+     *     The function has a time complexity of O(1) and does not allocate memory
+     *     (other than growing the undo stack).
+     * </p>
+     * @param move : the packed move
+     * @return : If the move is done successfully
+     */
+    public boolean makeMove(int move) {
+        if (!this.bitBoard.validMove(move))
+            return false;
+        applyMove(move, false);
+        this.bitBoard.makeMove(move);
+        if (this.undoCount == this.undoStack.length)
+            this.undoStack = Arrays.copyOf(this.undoStack, this.undoCount * 2);
+        this.undoStack[this.undoCount++] = move;
+        return true;
+    }
+
+    /**
+     * take back the last move that was made by makeMove
+     * @return : the move that was taken back, Move.NONE if there is no move to take back
+     */
+    public int unmakeMove() {
+        if (this.undoCount == 0)
+            return Move.NONE;
+        int move = this.undoStack[--this.undoCount];
+        this.bitBoard.unmakeMove(move);
+        applyMove(move, true);
+        return move;
+    }
+
+    /**
+     * move the pieces of a packed move between the cells and update the pieces of the player
+     * @param move : the packed move
+     * @param undo : if the move is taken back (from the target to the source)
+     */
+    private void applyMove(int move, boolean undo) {
+        Cell source = getCell(undo ? Move.to(move) : Move.from(move));
+        Cell dest = getCell(undo ? Move.from(move) : Move.to(move));
+        if (Move.isPass(move)) {
+            Piece ball = source.getPiece().remove(1);
+            dest.getPiece().add(ball);
+            this.players[ball.getColor() - 1].setBall(dest);
+        }
+        else {
+            Piece knight = source.getPiece().get(0);
+            source.getPiece().set(0, dest.getPiece().get(0));
+            dest.getPiece().set(0, knight);
+            this.players[knight.getColor() - 1].getPieces()[knight.getIndex()] = dest;
+        }
     }
 
     public List<Cell> getAvailablePositions (Cell cell) {
         List<Cell> availableCells = new ArrayList<>();
         Iterator<Piece> iterator = cell.getPiece().iterator();
-        int[][] availableMovesForKnight = {{-2, -1}, {-2, 1}, {2, -1}, {2, 1},
-                {-1, -2}, {-1, 2}, {1, -2}, {1, 2}};
         if (cell.getPiece().size() == 1) {
-            Piece p = iterator.next();
-            for (int[] movePos : availableMovesForKnight) {
-                if (p.validMove(this.board, cell.getX(), cell.getY(),
-                        cell.getX() + movePos[0], cell.getY() + movePos[1])) {
-                    availableCells.add(board[cell.getY() + movePos[1]][cell.getX() + movePos[0]]);
+            // the knight table already holds only the jumps that stay on the board
+            for (int dest : MoveTables.KNIGHT_SQUARES[BitBoard.square(cell.getX(), cell.getY())]) {
+                Cell destCell = board[BitBoard.row(dest)][BitBoard.column(dest)];
+                if (destCell.isEmpty()) {
+                    availableCells.add(destCell);
                 }
             }
         }
         if (cell.getPiece().size() == 2) {
             iterator.next();
             Piece p = iterator.next();
-            for (Cell c : this.currPlayer.getPieces()) {
-                if (p.validMove(this.board, cell.getX(), cell.getY(),
-                        c.getX(), c.getY())) {
-                    availableCells.add(board[c.getY()][c.getX()]);
+            int sq = BitBoard.square(cell.getX(), cell.getY());
+            // walk every ray until the first knight of the opponent and collect the knights of the current player
+            for (int[][] ray : MoveTables.RAY_SQUARES) {
+                for (int dest : ray[sq]) {
+                    Cell destCell = board[BitBoard.row(dest)][BitBoard.column(dest)];
+                    byte color = destCell.getPiece().get(0).getColor();
+                    if (color == this.currPlayer.getColor()) {
+                        availableCells.add(destCell);
+                    }
+                    if (!(color == p.getColor() || color == Piece.NONE)) {
+                        break;
+                    }
                 }
             }
         }
@@ -241,6 +485,39 @@ public class Board {
 
 
 
+    /**
+     * convert the board to a compact bitboard position
+     * <p>
+     *     The function has a time complexity of O(WIDTH * HEIGHT)
+     *     and a memory complexity of O(1).
+     * </p>
+     * @return : the bitboard position of the board
+     */
+    public BitBoard toBitBoard() {
+        long whiteKnights = 0;
+        long blackKnights = 0;
+        int whiteBall = 0;
+        int blackBall = 0;
+        for (int i = 0; i < HEIGHT; i++) {
+            for (int j = 0; j < WIDTH; j++) {
+                Iterator<Piece> iterator = this.board[i][j].getPiece().iterator();
+                Piece p = iterator.next();
+                int sq = BitBoard.square(j, i);
+                if (p.getColor() == Piece.WHITE)
+                    whiteKnights |= BitBoard.bit(sq);
+                else if (p.getColor() == Piece.BLACK)
+                    blackKnights |= BitBoard.bit(sq);
+                if (iterator.hasNext()) {
+                    if (iterator.next().getColor() == Piece.WHITE)
+                        whiteBall = sq;
+                    else
+                        blackBall = sq;
+                }
+            }
+        }
+        return new BitBoard(whiteKnights, blackKnights, whiteBall, blackBall, this.currPlayer.getId());
+    }
+
     /**
      * @return : string that represent the current board state
      */
@@ -82,7 +82,7 @@ public class Cell {
      * set the cell piece
      * <p>
      * This function sets the piece in the cell.
-     * If the piece is a Knight,
+     * If the piece is a Knight (or the empty piece),
      * it clears the list of pieces and adds the new Knight piece.
      * Otherwise, it simply adds the new piece to the list.
      * The runtime efficiency of this function depends on the size of the list.
@@ -95,7 +95,7 @@ public class Cell {
      * @param piece: the current piece in the cell
      */
     public void setPiece(Piece piece) {
-        if (piece.getClass().equals(Knight.class)) {
+        if (piece.getKind() != Piece.BALL) {
             this.piece.clear();
             this.piece.add(piece);
         }
@@ -109,15 +109,14 @@ public class Cell {
      * <p>
      *     This function checks if the cell is empty.
      *     It gets the first piece in the piece list
-     *     and checks if its ID is 0 (indicating an empty cell).
+     *     and checks if its kind is EMPTY.
      *     The runtime efficiency is O(1).
      * </p>
      *
      * @return if cell is empty (true) else false
      */
     public boolean isEmpty() {
-        Piece p = this.piece.iterator().next();
-        return p.getId() == 0;
+        return this.piece.get(0).getKind() == Piece.EMPTY;
     }
 
 
@@ -161,6 +160,11 @@ public class Cell {
         return getX() == cell.getX() && getY() == cell.getY() && getPiece().equals(cell.getPiece());
     }
 
+    @Override
+    public int hashCode() {
+        return Objects.hash(getX(), getY(), getPiece());
+    }
+
 
     @Override
     public String toString() {
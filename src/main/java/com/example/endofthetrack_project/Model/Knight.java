@@ -9,11 +9,11 @@ public class Knight extends Piece {
 
 
     /**
-     * initialize knight
+     * initialize knight, a knight with the color NONE is the empty piece of an empty cell
      * @param color : the color of piece
      */
-    public Knight(String color, int id) {
-        super(color, id);
+    public Knight(byte color, int id) {
+        super(color, color == NONE ? EMPTY : KNIGHT, id);
     }
 
     public Knight(Knight knight) {
@@ -41,7 +41,7 @@ public class Knight extends Piece {
         if (validMove(board, source_x, source_y, dest_x, dest_y)) {
             if (sourceCell.getPiece().size() == 1) {
                 destCell.setPiece(sourceCell.getPiece().iterator().next());
-                sourceCell.setPiece(new Knight("none", 0));
+                sourceCell.setPiece(new Knight(NONE, 0));
                 return true;
             }
         }
@@ -81,6 +81,6 @@ public class Knight extends Piece {
 
     @Override
     public String toString() {
-        return super.getId() + " " + super.getColor();
+        return super.getId() + " " + colorName(super.getColor());
     }
 }
@@ -0,0 +1,70 @@
+package com.example.endofthetrack_project.Model;
+
+/**
+ * Move class packs a move of the game into a single int
+ * <p>
+ *     bits 0-5 hold the source square, bits 6-11 hold the target square
+ *     and bit 12 is set when the move is a ball pass (otherwise it is a knight move).
+ *     Squares are indexed as in BitBoard (row * WIDTH + column).
+ * </p>
+ * @author maor
+ */
+public final class Move {
+
+    /**
+     * the attributes of the Move encoding
+     */
+    public static final int NONE = 0;
+    public static final int MAX_MOVES = 64;
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PASS = 1 << 12;
+
+    private Move() {
+    }
+
+    /**
+     * pack a move into an int
+     * @param from : the source square
+     * @param to : the target square
+     * @param isPass : if the move is a ball pass (true) or a knight move (false)
+     * @return : the packed move
+     */
+    public static int encode(int from, int to, boolean isPass) {
+        return from | (to << TO_SHIFT) | (isPass ? PASS : 0);
+    }
+
+    /**
+     * pack a move between two cells into an int
+     * @param source : the source cell
+     * @param dest : the target cell
+     * @param isPass : if the move is a ball pass (true) or a knight move (false)
+     * @return : the packed move
+     */
+    public static int encode(Cell source, Cell dest, boolean isPass) {
+        return encode(BitBoard.square(source.getX(), source.getY()),
+                BitBoard.square(dest.getX(), dest.getY()), isPass);
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    public static boolean isPass(int move) {
+        return (move & PASS) != 0;
+    }
+
+    /**
+     * @param move : the packed move
+     * @return : string that represent the move
+     */
+    public static String toString(int move) {
+        return (isPass(move) ? "pass " : "knight ") +
+                "(" + BitBoard.column(from(move)) + "," + BitBoard.row(from(move)) + ")->(" +
+                BitBoard.column(to(move)) + "," + BitBoard.row(to(move)) + ")";
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.endofthetrack_project.Model;
+
+import java.util.Arrays;
+
+/**
+ * MoveTables class holds the move tables of the pieces that are computed once for every square
+ * @author maor
+ */
+public final class MoveTables {
+
+    /**
+     * the eight knight jumps as {dx, dy}
+     */
+    private static final int[][] KNIGHT_JUMPS = {{-2, -1}, {-2, 1}, {2, -1}, {2, 1},
+            {-1, -2}, {-1, 2}, {1, -2}, {1, 2}};
+
+    /**
+     * the squares a knight can jump to from each square, as a mask and as a list of indexes
+     */
+    public static final long[] KNIGHT = new long[BitBoard.SQUARES];
+    public static final int[][] KNIGHT_SQUARES = new int[BitBoard.SQUARES][];
+
+    /**
+     * the eight directions a ball can be passed in as {dx, dy},
+     * the first four go to higher square indexes and the last four to lower square indexes
+     */
+    public static final int DIRECTIONS = 8;
+    private static final int[][] RAY_STEPS = {{1, 0}, {-1, 1}, {0, 1}, {1, 1},
+            {-1, 0}, {1, -1}, {0, -1}, {-1, -1}};
+
+    /**
+     * the squares of the ray from each square in each direction (not including the square itself),
+     * as a mask and as a list of indexes ordered from the nearest square
+     */
+    public static final long[][] RAYS = new long[DIRECTIONS][BitBoard.SQUARES];
+    public static final int[][][] RAY_SQUARES = new int[DIRECTIONS][BitBoard.SQUARES][];
+
+    static {
+        for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+            int x = BitBoard.column(sq);
+            int y = BitBoard.row(sq);
+            int[] squares = new int[KNIGHT_JUMPS.length];
+            int count = 0;
+            for (int[] jump : KNIGHT_JUMPS) {
+                int destX = x + jump[0];
+                int destY = y + jump[1];
+                if (destX >= 0 && destX < BitBoard.WIDTH && destY >= 0 && destY < BitBoard.HEIGHT) {
+                    int dest = BitBoard.square(destX, destY);
+                    KNIGHT[sq] |= BitBoard.bit(dest);
+                    squares[count++] = dest;
+                }
+            }
+            KNIGHT_SQUARES[sq] = Arrays.copyOf(squares, count);
+
+            for (int d = 0; d < DIRECTIONS; d++) {
+                int[] ray = new int[Math.max(BitBoard.WIDTH, BitBoard.HEIGHT)];
+                int length = 0;
+                int destX = x + RAY_STEPS[d][0];
+                int destY = y + RAY_STEPS[d][1];
+                while (destX >= 0 && destX < BitBoard.WIDTH && destY >= 0 && destY < BitBoard.HEIGHT) {
+                    int dest = BitBoard.square(destX, destY);
+                    RAYS[d][sq] |= BitBoard.bit(dest);
+                    ray[length++] = dest;
+                    destX += RAY_STEPS[d][0];
+                    destY += RAY_STEPS[d][1];
+                }
+                RAY_SQUARES[d][sq] = Arrays.copyOf(ray, length);
+            }
+        }
+    }
+
+    private MoveTables() {
+    }
+
+    /**
+     * get the squares a knight can move to
+     * <p>
+     *     The function has a time complexity of O(1) and a memory complexity of O(1).
+     * </p>
+     * @param square : the square of the knight
+     * @param occupancy : the occupied squares of the board
+     * @return : the mask of the empty squares the knight can jump to
+     */
+    public static long knightTargets(int square, long occupancy) {
+        return KNIGHT[square] & ~occupancy;
+    }
+
+    /**
+     * get the squares a ball can reach from a square
+     * <p>
+     *     Every ray is cut right after the first blocker on it, so the blocker itself is included.
+     *     In the first four directions the nearest blocker is the lowest bit of the ray,
+     *     in the last four it is the highest bit.
+     *     The function has a time complexity of O(1) and a memory complexity of O(1).
+     * </p>
+     * @param square : the square of the ball
+     * @param blockers : the squares that stop the ball (the knights of the opponent)
+     * @return : the mask of the squares the ball can reach
+     */
+    public static long passReach(int square, long blockers) {
+        long reach = 0;
+        for (int d = 0; d < DIRECTIONS / 2; d++) {
+            long ray = RAYS[d][square];
+            long b = ray & blockers;
+            if (b != 0)
+                ray &= (Long.lowestOneBit(b) << 1) - 1;
+            reach |= ray;
+        }
+        for (int d = DIRECTIONS / 2; d < DIRECTIONS; d++) {
+            long ray = RAYS[d][square];
+            long b = ray & blockers;
+            if (b != 0)
+                ray &= -Long.highestOneBit(b);
+            reach |= ray;
+        }
+        return reach;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.endofthetrack_project.Model;
+
+import java.util.List;
+
+/**
+ * Perft class counts the leaf nodes that can be reached in N plies from a position
+ * <p>
+ *     The count is done on three move paths so they can be checked against each other:
+ *     the cell path (the rules of Knight.validMove and Ball.validMove tried from every cell to every cell,
+ *     with a copy of the cells for every move, so it shares no code with the move generators),
+ *     the packed board path (Board.generateMoves, makeMove and unmakeMove)
+ *     and the bitboard path (BitBoard.generateMoves, makeMove and unmakeMove).
+ *     A move that wins the game is a leaf, the game does not go on after it.
+ * </p>
+ * @author maor
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * run perft from the start position and print the counts and the speed of every path
+     * @param args : the maximum depth (4 by default)
+     */
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        boolean ok = true;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long cellNodes = perftCells(new Board(Position.START), depth);
+            long cellTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long boardNodes = perftBoard(new Board(Position.START), depth);
+            long boardTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long bitBoardNodes = perft(Position.START, depth);
+            long bitBoardTime = System.nanoTime() - start;
+
+            boolean match = cellNodes == boardNodes && boardNodes == bitBoardNodes;
+            ok &= match;
+            System.out.println("depth " + depth + ": " + bitBoardNodes + " nodes " + (match ? "OK" : "MISMATCH"));
+            System.out.println("    cells:    " + cellNodes + " nodes, " + nodesPerSecond(cellNodes, cellTime) + " nodes/s");
+            System.out.println("    board:    " + boardNodes + " nodes, " + nodesPerSecond(boardNodes, boardTime) + " nodes/s");
+            System.out.println("    bitboard: " + bitBoardNodes + " nodes, " + nodesPerSecond(bitBoardNodes, bitBoardTime) + " nodes/s");
+        }
+        if (!ok)
+            System.exit(1);
+    }
+
+    /**
+     * count the leaf nodes in depth plies from a position on the bitboard path
+     * @param position : the position to start from
+     * @param depth : the number of plies
+     * @return : the number of leaf nodes
+     */
+    public static long perft(Position position, int depth) {
+        return perft(position.toBitBoard(), depth, new int[depth + 1][Move.MAX_MOVES]);
+    }
+
+    private static long perft(BitBoard bitBoard, int depth, int[][] moves) {
+        if (depth == 0)
+            return 1;
+        int moveCount = bitBoard.generateMoves(moves[depth]);
+        // every move of the last ply is a leaf, whether it wins or not
+        if (depth == 1)
+            return moveCount;
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++) {
+            int move = moves[depth][i];
+            bitBoard.makeMove(move);
+            if (bitBoard.isGameOver()) {
+                nodes++;
+            }
+            else {
+                bitBoard.switchTurn();
+                nodes += perft(bitBoard, depth - 1, moves);
+                bitBoard.switchTurn();
+            }
+            bitBoard.unmakeMove(move);
+        }
+        return nodes;
+    }
+
+    /**
+     * count the leaf nodes in depth plies from a board on the packed board path
+     * @param board : the board to start from, it is the same when the count is done
+     * @param depth : the number of plies
+     * @return : the number of leaf nodes
+     */
+    public static long perftBoard(Board board, int depth) {
+        if (depth == 0)
+            return 1;
+        int[] moves = new int[Move.MAX_MOVES];
+        int moveCount = board.generateMoves(moves);
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++) {
+            if (!board.makeMove(moves[i]))
+                continue;
+            if (board.isGameOver()) {
+                nodes++;
+            }
+            else {
+                board.switchTurn();
+                nodes += perftBoard(board, depth - 1);
+                board.switchTurn();
+            }
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * count the leaf nodes in depth plies from a board on the cell path
+     * <p>
+     *     This is the reference of the other paths: every piece of the current player is tried
+     *     from its cell to every cell of the board with the validMove of the piece (the ball if the knight holds it),
+     *     and a pass has to end on a knight of the player, as in the move list of the first version of the game.
+     *     The move is made with Cell.movePiece on a copy of the cells.
+     *     The function has a time complexity of O(b^d * (WIDTH * HEIGHT)^2), where b is the number of moves of a ply.
+     * </p>
+     * @param board : the board to start from, it is not changed
+     * @param depth : the number of plies
+     * @return : the number of leaf nodes
+     */
+    public static long perftCells(Board board, int depth) {
+        return perftCells(board.getBoard(), board.getCurrPlayer().getColor(), depth);
+    }
+
+    private static long perftCells(Cell[][] cells, byte color, int depth) {
+        if (depth == 0)
+            return 1;
+        long nodes = 0;
+        for (int y = 0; y < BitBoard.HEIGHT; y++) {
+            for (int x = 0; x < BitBoard.WIDTH; x++) {
+                List<Piece> pieces = cells[y][x].getPiece();
+                if (pieces.get(0).getColor() != color)
+                    continue;
+                boolean hasBall = pieces.size() > 1;
+                Piece piece = hasBall ? pieces.get(1) : pieces.get(0);
+                for (int destY = 0; destY < BitBoard.HEIGHT; destY++) {
+                    for (int destX = 0; destX < BitBoard.WIDTH; destX++) {
+                        if (!piece.validMove(cells, x, y, destX, destY))
+                            continue;
+                        if (hasBall && cells[destY][destX].getPiece().get(0).getColor() != color)
+                            continue;
+                        Cell[][] copy = copyCells(cells);
+                        copy[y][x].movePiece(copy, destX, destY);
+                        if (hasBall && destY == (color == Piece.WHITE ? 0 : BitBoard.HEIGHT - 1)) {
+                            nodes++;
+                        }
+                        else {
+                            nodes += perftCells(copy, color == Piece.WHITE ? Piece.BLACK : Piece.WHITE, depth - 1);
+                        }
+                    }
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static Cell[][] copyCells(Cell[][] cells) {
+        Cell[][] copy = new Cell[cells.length][];
+        for (int y = 0; y < cells.length; y++) {
+            copy[y] = new Cell[cells[y].length];
+            for (int x = 0; x < cells[y].length; x++) {
+                copy[y][x] = new Cell(cells[y][x]);
+            }
+        }
+        return copy;
+    }
+
+    private static long nodesPerSecond(long nodes, long nanos) {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+}
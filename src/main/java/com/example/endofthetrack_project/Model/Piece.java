@@ -9,23 +9,41 @@ import java.util.Objects;
 public abstract class Piece {
 
     /**
-     * attributes of class: color of the piece, id of the piece
+     * the colors of the pieces, the color of a player's pieces is the same as the player's id
      */
-    private String color;
+    public static final byte NONE = 0;
+    public static final byte WHITE = 1;
+    public static final byte BLACK = 2;
+
+    /**
+     * the kinds of the pieces, an empty cell holds a knight piece of kind EMPTY
+     */
+    public static final byte EMPTY = 0;
+    public static final byte KNIGHT = 1;
+    public static final byte BALL = 2;
+
+    /**
+     * attributes of class: color of the piece, kind of the piece, id of the piece
+     */
+    private byte color;
+    private byte kind;
     private int id;
 
     /**
      * initialize piece
-     * @param color: the color of piece
+     * @param color: the color of piece (NONE, WHITE or BLACK)
+     * @param kind : the kind of the piece (EMPTY, KNIGHT or BALL)
      * @param id : the id of the piece
      */
-    public Piece(String color, int id) {
+    public Piece(byte color, byte kind, int id) {
         this.color = color;
+        this.kind = kind;
         this.id = id;
     }
 
     public Piece(Piece piece) {
         this.color = piece.color;
+        this.kind = piece.kind;
         this.id = piece.id;
     }
 
@@ -52,24 +70,49 @@ public abstract class Piece {
 
 
 
-    public String getColor() {
+    public byte getColor() {
         return color;
     }
 
+    public byte getKind() {
+        return kind;
+    }
+
     public int getId() {
         return id;
     }
 
+    /**
+     * get the index of the piece in the pieces array of its player
+     * (white knights have the ids 1-5 and black knights have the ids 7-11)
+     * @return : the index of the piece
+     */
+    public int getIndex() {
+        return color == WHITE ? id - 1 : id - 7;
+    }
+
+    /**
+     * @param color : the color of a piece or a player
+     * @return : the name of the color
+     */
+    public static String colorName(byte color) {
+        if (color == WHITE)
+            return "white";
+        if (color == BLACK)
+            return "black";
+        return "none";
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Piece)) return false;
         Piece piece = (Piece) o;
-        return getId() == piece.getId() && getColor().equals(piece.getColor());
+        return getId() == piece.getId() && getColor() == piece.getColor() && getKind() == piece.getKind();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getColor(), getId());
+        return Objects.hash(getColor(), getKind(), getId());
     }
 }
@@ -1,7 +1,6 @@
 package com.example.endofthetrack_project.Model;
 
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.Objects;
 
 /**
@@ -14,7 +13,7 @@ public class Player {
      * attributes of class
      */
     private int id;
-    private String color;
+    private byte color;
     private Cell[] pieces;
     private Cell ball;
     private String notValid;
@@ -23,9 +22,9 @@ public class Player {
     /**
      * construct new player
      * @param id : the id of the player
-     * @param color : the color of the player (white or black)
+     * @param color : the color of the player (Piece.WHITE or Piece.BLACK)
      */
-    public Player (int id, String color) {
+    public Player (int id, byte color) {
         this.id = id;
         this.pieces = new Cell[5];
         this.color = color;
@@ -51,6 +50,25 @@ public class Player {
     }
 
 
+    /**
+     * constructs a new player from an existing player of another board,
+     * the pieces and the ball of the new player point to the cells of the given board
+     *
+     * @param currPlayer the existing player to be copied
+     * @param board the cells of the board of the new player
+     */
+    public Player(Player currPlayer, Cell[][] board) {
+        this.id = currPlayer.id;
+        this.color = currPlayer.color;
+        this.ball = board[currPlayer.ball.getY()][currPlayer.ball.getX()];
+        this.notValid = currPlayer.notValid;
+        this.isCurrent = currPlayer.isCurrent;
+        this.pieces = new Cell[currPlayer.pieces.length];
+        for (int i = 0; i < currPlayer.pieces.length; i++) {
+            this.pieces[i] = board[currPlayer.pieces[i].getY()][currPlayer.pieces[i].getX()];
+        }
+    }
+
     /**
      * Returns the pieces of the player
      * @return the pieces array
@@ -69,12 +87,20 @@ public class Player {
 
     /**
      * Returns the color of the player
-     * @return the player's color
+     * @return the player's color (Piece.WHITE or Piece.BLACK)
      */
-    public String getColor() {
+    public byte getColor() {
         return color;
     }
 
+    /**
+     * Returns the name of the color of the player
+     * @return the player's color name (white or black)
+     */
+    public String getColorName() {
+        return Piece.colorName(color);
+    }
+
     /**
      * Returns the ball of the player
      * @return the player's ball
@@ -116,80 +142,14 @@ public class Player {
         isCurrent = current;
     }
 
-    /**
-     * makes a move for a player based on what he played on the board
-     * <p>
-     *     The makeMove() method has a time complexity of O(n),
-     *     where n is the number of pieces in the pieces array,
-     *     as it checks if the sourceCell is a valid piece,
-     *     moves the piece to the destCell,
-     *     updates the ball attribute if necessary,
-     *     and updates the pieces array. The method also has a space complexity of O(1),
-     *     as it only modifies the attributes of the class and does not create any new data structures.
-     * </p>
-     * @param board : game board
-     * @param sourceCell : the source cell
-     * @param destCell : the destination cell
-     * @return : If the move is done successfully
-     */
-    public boolean makeMove (Cell[][] board, Cell sourceCell, Cell destCell) {
-        // checks if the source cell contains a piece owned by the player
-        if (Arrays.asList(this.pieces).contains(sourceCell)) {
-            // calls movePiece() on the source cell and checks if the move is valid
-            if (sourceCell.movePiece(board, destCell.getX(), destCell.getY())) {
-                Iterator<Piece> iterator = board[destCell.getY()][destCell.getX()].getPiece().iterator();
-                Piece p = iterator.next();
-                // checks if there is more than one piece on the destination cell
-                if (iterator.hasNext()) {
-                    // checks if the source cell originally had two pieces
-                    if (sourceCell.getPiece().size() == 2) {
-                        if (p.getColor().equals("white"))
-                            // removes the last piece in the white player's captured pieces list.
-                            this.pieces[sourceCell.getPiece().iterator().next().getId() - 1].getPiece().remove(this.pieces[sourceCell.getPiece().iterator().next().getId() - 1].getPiece().size() - 1);
-                        if (p.getColor().equals("black"))
-                            // removes the last piece in the black player's captured pieces list.
-                            this.pieces[sourceCell.getPiece().iterator().next().getId() - 7].getPiece().remove(this.pieces[sourceCell.getPiece().iterator().next().getId() - 7].getPiece().size() - 1);
-                    }
-                    if (sourceCell.getPiece().iterator().next().getColor().equals("white")) {
-                        // checks if the white player has two pieces in their captured pieces list.
-                        if (this.pieces[sourceCell.getPiece().iterator().next().getId() - 1].getPiece().size() == 2) {
-                            // removes the last piece in the white player's captured pieces list.
-                            this.pieces[sourceCell.getPiece().iterator().next().getId() - 1].getPiece().remove(this.pieces[sourceCell.getPiece().iterator().next().getId() - 1].getPiece().size() - 1);
-                        }
-                    }
-                    if (sourceCell.getPiece().iterator().next().getColor().equals("black")) {
-                        // checks if the black player has two pieces in their captured pieces list.
-                        if (this.pieces[sourceCell.getPiece().iterator().next().getId() - 7].getPiece().size() == 2) {
-                            // removes the last piece in the black player's captured pieces list.
-                            this.pieces[sourceCell.getPiece().iterator().next().getId() - 7].getPiece().remove(this.pieces[sourceCell.getPiece().iterator().next().getId() - 7].getPiece().size() - 1);
-                        }
-                    }
-                    // sets the ball if it is on the destination cell
-                    this.setBall(board[destCell.getY()][destCell.getX()]);
-                }
-                // updates the player's piece array if the piece moved is white
-                if (p.getColor().equals("white")) {
-                    this.pieces[p.getId() - 1] = board[destCell.getY()][destCell.getX()];
-                }
-                // updates the player's piece array if the piece moved is black
-                if (p.getColor().equals("black")) {
-                    this.pieces[p.getId() - 7] = board[destCell.getY()][destCell.getX()];
-                }
-                return true;
-            }
-            else {
-                // sets a message if the move is not valid
-                this.notValid = "Illegal move try again";
-            }
-        }
-        // returns false if the source cell does not contain a piece owned by the player
-        return false;
-    }
-
     public String getNotValid() {
         return notValid;
     }
 
+    public void setNotValid(String notValid) {
+        this.notValid = notValid;
+    }
+
     /**
      * check for win
      * <p>
@@ -203,12 +163,10 @@ public class Player {
      */
     public boolean isWinner () {
         if (this.ball.getPiece().size() > 1) {
-            Iterator<Piece> iterator = this.ball.getPiece().iterator();
-            iterator.next();
-            Piece p = iterator.next();
-            if (p.getColor().equals("white") && this.color.equals("white")) {
+            Piece p = this.ball.getPiece().get(1);
+            if (p.getColor() == Piece.WHITE && this.color == Piece.WHITE) {
                 return this.ball.getY() == 0;
-            } else if (p.getColor().equals("black") && this.color.equals("black")) {
+            } else if (p.getColor() == Piece.BLACK && this.color == Piece.BLACK) {
                 return this.ball.getY() == 7;
             }
         }
@@ -228,7 +186,7 @@ public class Player {
         }
         return getId() == player.getId() &&
                 isCurrent() == player.isCurrent() &&
-                getColor().equals(player.getColor()) && flag
+                getColor() == player.getColor() && flag
                 && getBall().equals(player.getBall());
     }
 
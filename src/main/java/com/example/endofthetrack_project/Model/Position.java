@@ -0,0 +1,49 @@
+package com.example.endofthetrack_project.Model;
+
+/**
+ * Position record is an immutable value of a position of the game
+ * <p>
+ *     It holds the same data as BitBoard (the knights of each player, the square of each ball
+ *     and the player to move) in two longs and three bytes, about 32 bytes with the object header,
+ *     so it can be stored in search trees and caches instead of a copy of the whole Board.
+ *     equals and hashCode compare a constant number of fields.
+ * </p>
+ * @param whiteKnights : the squares of the white knights
+ * @param blackKnights : the squares of the black knights
+ * @param whiteBall : the square of the white ball
+ * @param blackBall : the square of the black ball
+ * @param currPlayer : the id of the player to move
+ * @author maor
+ */
+public record Position(long whiteKnights, long blackKnights, byte whiteBall, byte blackBall, byte currPlayer) {
+
+    /**
+     * the start position of the game
+     */
+    public static final Position START = of(new BitBoard());
+
+    /**
+     * create a position from a bitboard in O(1)
+     * @param bitBoard : the bitboard to take the position from
+     * @return : the position of the bitboard
+     */
+    public static Position of(BitBoard bitBoard) {
+        return new Position(bitBoard.getKnights(BitBoard.WHITE), bitBoard.getKnights(BitBoard.BLACK),
+                (byte) bitBoard.getBall(BitBoard.WHITE), (byte) bitBoard.getBall(BitBoard.BLACK),
+                (byte) bitBoard.getCurrPlayer());
+    }
+
+    /**
+     * @return : a new bitboard of this position that can be changed by the caller
+     */
+    public BitBoard toBitBoard() {
+        return new BitBoard(whiteKnights, blackKnights, whiteBall, blackBall, currPlayer);
+    }
+
+    /**
+     * @return : the 64 bit zobrist key of this position (see Zobrist)
+     */
+    public long zobristKey() {
+        return Zobrist.compute(whiteKnights, blackKnights, whiteBall, blackBall, currPlayer);
+    }
+}
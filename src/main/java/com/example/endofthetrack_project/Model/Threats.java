@@ -0,0 +1,236 @@
+package com.example.endofthetrack_project.Model;
+
+import java.util.Random;
+
+/**
+ * Threats class finds the ways a player can bring its ball to its goal row, only from the masks of a bitboard
+ * <p>
+ *     The ball reaches the goal row by passes along the rays of MoveTables.passReach,
+ *     so the knights the ball can get to within k passes are a flood fill over the pass rays:
+ *     every pass adds the knights of the player that one of the reached knights can pass to.
+ *     The opponent does not move between the moves of the player, so a threat in more than one move
+ *     is what the player can do if it is not stopped, a threat in one move is a win.
+ *     The functions make no move, allocate nothing and have a time complexity of O(1)
+ *     (every knight of the player is visited once, with the eight rays of passReach).
+ * </p>
+ * @author maor
+ */
+public final class Threats {
+
+    /**
+     * the squares of the goal row of every player (by id, index 0 is empty)
+     */
+    private static final long[] GOAL_ROWS = {0,
+            (1L << BitBoard.WIDTH) - 1,
+            ((1L << BitBoard.WIDTH) - 1) << BitBoard.square(0, BitBoard.HEIGHT - 1)};
+
+    private Threats() {
+    }
+
+    /**
+     * @param player : the id of the player
+     * @return : the mask of the squares of the goal row of the player
+     */
+    public static long goalRow(int player) {
+        return GOAL_ROWS[player];
+    }
+
+    /**
+     * get the knights the ball can get to within a number of passes, when nothing moves in between
+     * @param ball : the square of the ball
+     * @param knights : the squares of the knights of the player that owns the ball
+     * @param blockers : the squares that stop the ball (the knights of the opponent)
+     * @param maxPasses : the maximum number of passes
+     * @return : the mask of the knights the ball can get to, with the square of the ball
+     */
+    public static long passClosure(int ball, long knights, long blockers, int maxPasses) {
+        long reached = BitBoard.bit(ball);
+        long frontier = reached;
+        for (int pass = 0; pass < maxPasses && frontier != 0; pass++) {
+            long next = 0;
+            while (frontier != 0) {
+                next |= MoveTables.passReach(Long.numberOfTrailingZeros(frontier), blockers);
+                frontier &= frontier - 1;
+            }
+            frontier = next & knights & ~reached;
+            reached |= frontier;
+        }
+        return reached;
+    }
+
+    /**
+     * check if a player can pass its ball to its goal row within a number of passes,
+     * the opponent does not move in between
+     * @param bitBoard : the position
+     * @param player : the id of the player
+     * @param maxPasses : the maximum number of passes
+     * @return : if the ball can get to the goal row (true) else (false)
+     */
+    public static boolean canWinInPasses(BitBoard bitBoard, int player, int maxPasses) {
+        int ball = bitBoard.getBall(player);
+        long reached = passClosure(ball, bitBoard.getKnights(player), bitBoard.getKnights(BitBoard.opponent(player)), maxPasses);
+        return (reached & ~BitBoard.bit(ball) & GOAL_ROWS[player]) != 0;
+    }
+
+    /**
+     * get a pass of a player to its goal row
+     * @param bitBoard : the position
+     * @param player : the id of the player
+     * @return : the packed winning pass (see Move), or Move.NONE if the player has none
+     */
+    public static int winningPass(BitBoard bitBoard, int player) {
+        long targets = bitBoard.passTargets(player) & GOAL_ROWS[player];
+        if (targets == 0)
+            return Move.NONE;
+        return Move.encode(bitBoard.getBall(player), Long.numberOfTrailingZeros(targets), true);
+    }
+
+    /**
+     * check if a player can win with its next move (a single pass to its goal row)
+     * @param bitBoard : the position
+     * @param player : the id of the player
+     * @return : if the player has a winning pass (true) else (false)
+     */
+    public static boolean canWinNextMove(BitBoard bitBoard, int player) {
+        return (bitBoard.passTargets(player) & GOAL_ROWS[player]) != 0;
+    }
+
+    /**
+     * check if a player can win within its next two moves, the opponent does not move in between
+     * <p>
+     *     The player wins with two passes, or with a knight jump to an empty square of the goal row
+     *     that the ball can then be passed to (a knight of the player never blocks its own ball).
+     *     The knight that holds the ball can't jump.
+     * </p>
+     * @param bitBoard : the position
+     * @param player : the id of the player
+     * @return : if the player can win within two moves (true) else (false)
+     */
+    public static boolean canWinInTwoMoves(BitBoard bitBoard, int player) {
+        if (canWinInPasses(bitBoard, player, 2))
+            return true;
+        int ball = bitBoard.getBall(player);
+        long occupancy = bitBoard.getOccupancy();
+        long lanes = MoveTables.passReach(ball, bitBoard.getKnights(BitBoard.opponent(player)))
+                & GOAL_ROWS[player] & ~occupancy;
+        long knights = bitBoard.getKnights(player) & ~BitBoard.bit(ball);
+        while (knights != 0 && lanes != 0) {
+            if ((MoveTables.KNIGHT[Long.numberOfTrailingZeros(knights)] & lanes) != 0)
+                return true;
+            knights &= knights - 1;
+        }
+        return false;
+    }
+
+    /**
+     * check if a move of the current player lets the opponent win with its next move, the move is not made
+     * <p>
+     *     Only the knights of the current player block the ball of the opponent,
+     *     so a pass leaves the passes of the opponent as they are and a knight jump moves one blocker.
+     *     A move that wins the game does not let the opponent move.
+     * </p>
+     * @param bitBoard : the position before the move
+     * @param move : the packed move of the current player
+     * @return : if the opponent can win after the move (true) else (false)
+     */
+    public static boolean allowsWinNextMove(BitBoard bitBoard, int move) {
+        int player = bitBoard.getCurrPlayer();
+        int opponent = BitBoard.opponent(player);
+        if (Move.isPass(move) && BitBoard.row(Move.to(move)) == BitBoard.goalRow(player))
+            return false;
+        long blockers = bitBoard.getKnights(player);
+        if (!Move.isPass(move))
+            blockers ^= BitBoard.bit(Move.from(move)) | BitBoard.bit(Move.to(move));
+        return (MoveTables.passReach(bitBoard.getBall(opponent), blockers)
+                & bitBoard.getKnights(opponent) & GOAL_ROWS[opponent]) != 0;
+    }
+
+    /**
+     * check the threats against a slow reference on positions of random games and print the speed of the checks
+     * @param args : the number of random games (1000 by default)
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        Random random = new Random(1);
+        int[] moves = new int[Move.MAX_MOVES];
+        BitBoard[] positions = new BitBoard[games];
+        boolean ok = true;
+        int count = 0;
+        for (int game = 0; game < games; game++) {
+            BitBoard bitBoard = new BitBoard();
+            int plies = random.nextInt(100);
+            for (int ply = 0; ply < plies && !bitBoard.isGameOver(); ply++) {
+                int moveCount = bitBoard.generateMoves(moves);
+                if (moveCount > 0)
+                    bitBoard.makeMove(moves[random.nextInt(moveCount)]);
+                if (!bitBoard.isGameOver())
+                    bitBoard.switchTurn();
+            }
+            if (bitBoard.isGameOver())
+                continue;
+            positions[count++] = bitBoard;
+            int player = bitBoard.getCurrPlayer();
+            ok &= canWinNextMove(bitBoard, player) == canWinInOneReference(bitBoard, player);
+            ok &= canWinInTwoMoves(bitBoard, player) == canWinInTwoReference(bitBoard, player, moves);
+            int moveCount = bitBoard.generateMoves(moves);
+            for (int i = 0; i < moveCount; i++) {
+                boolean allows = allowsWinNextMove(bitBoard, moves[i]);
+                bitBoard.makeMove(moves[i]);
+                if (!bitBoard.isGameOver()) {
+                    bitBoard.switchTurn();
+                    ok &= allows == canWinInOneReference(bitBoard, bitBoard.getCurrPlayer());
+                    bitBoard.switchTurn();
+                }
+                else {
+                    ok &= !allows;
+                }
+                bitBoard.unmakeMove(moves[i]);
+            }
+        }
+        System.out.println(count + " positions " + (ok ? "OK" : "MISMATCH"));
+
+        int found = 0;
+        int rounds = 1000;
+        for (int warmUp = 0; warmUp < 2; warmUp++) {
+            long start = System.nanoTime();
+            for (int round = 0; round < rounds; round++) {
+                for (int i = 0; i < count; i++) {
+                    if (canWinInTwoMoves(positions[i], positions[i].getCurrPlayer()))
+                        found++;
+                }
+            }
+            long time = System.nanoTime() - start;
+            if (warmUp == 1)
+                System.out.printf("canWinInTwoMoves: %.1f ns per position (%d threats)%n",
+                        (double) time / ((long) rounds * count), found);
+        }
+        if (!ok)
+            System.exit(1);
+    }
+
+    // a pass to the goal row among the generated moves
+    private static boolean canWinInOneReference(BitBoard bitBoard, int player) {
+        int[] moves = new int[Move.MAX_MOVES];
+        int moveCount = bitBoard.generateMoves(moves);
+        for (int i = 0; i < moveCount; i++) {
+            if (Move.isPass(moves[i]) && BitBoard.row(Move.to(moves[i])) == BitBoard.goalRow(player))
+                return true;
+        }
+        return false;
+    }
+
+    // a win in one, or a move after which the same player wins in one
+    private static boolean canWinInTwoReference(BitBoard bitBoard, int player, int[] moves) {
+        if (canWinInOneReference(bitBoard, player))
+            return true;
+        int moveCount = bitBoard.generateMoves(moves);
+        for (int i = 0; i < moveCount; i++) {
+            bitBoard.makeMove(moves[i]);
+            boolean wins = canWinInOneReference(bitBoard, player);
+            bitBoard.unmakeMove(moves[i]);
+            if (wins)
+                return true;
+        }
+        return false;
+    }
+}
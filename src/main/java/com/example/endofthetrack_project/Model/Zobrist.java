@@ -0,0 +1,78 @@
+package com.example.endofthetrack_project.Model;
+
+import java.util.Random;
+
+/**
+ * Zobrist class holds the random keys that are used to hash a position into a 64 bit key
+ * <p>
+ *     The key of a position is the xor of the keys of its knights, its balls
+ *     and the side key when black is to move, so a move changes the key
+ *     by xor-ing only the keys of the squares it touches.
+ * </p>
+ * @author maor
+ */
+public final class Zobrist {
+
+    /**
+     * the keys of a knight and of a ball of each player (by player id - 1) on each square,
+     * and the key of black to move
+     */
+    public static final long[][] KNIGHT = new long[2][BitBoard.SQUARES];
+    public static final long[][] BALL = new long[2][BitBoard.SQUARES];
+    public static final long SIDE;
+
+    static {
+        // a fixed seed so the keys are the same in every run
+        Random random = new Random(0x5EED_E0D7L);
+        for (int player = 0; player < 2; player++) {
+            for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+                KNIGHT[player][sq] = random.nextLong();
+                BALL[player][sq] = random.nextLong();
+            }
+        }
+        SIDE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * the change of the key that a move of a player makes, the turn is passed to the other player
+     * <p>
+     *     The key of the position after the move (with the turn switched) is the key before it xor this key,
+     *     so the key of a child position is known without making the move.
+     * </p>
+     * @param player : the id of the player that makes the move
+     * @param move : the packed move (see Move)
+     * @return : the key to xor with the key of the position
+     */
+    public static long moveKey(int player, int move) {
+        long[] keys = Move.isPass(move) ? BALL[player - 1] : KNIGHT[player - 1];
+        return keys[Move.from(move)] ^ keys[Move.to(move)] ^ SIDE;
+    }
+
+    /**
+     * compute the key of a position from scratch
+     * <p>
+     *     The function has a time complexity of O(n), where n is the number of knights,
+     *     and a memory complexity of O(1).
+     * </p>
+     * @param whiteKnights : the squares of the white knights
+     * @param blackKnights : the squares of the black knights
+     * @param whiteBall : the square of the white ball
+     * @param blackBall : the square of the black ball
+     * @param currPlayer : the id of the player to move
+     * @return : the key of the position
+     */
+    public static long compute(long whiteKnights, long blackKnights, int whiteBall, int blackBall, int currPlayer) {
+        long key = 0;
+        for (long b = whiteKnights; b != 0; b &= b - 1)
+            key ^= KNIGHT[0][Long.numberOfTrailingZeros(b)];
+        for (long b = blackKnights; b != 0; b &= b - 1)
+            key ^= KNIGHT[1][Long.numberOfTrailingZeros(b)];
+        key ^= BALL[0][whiteBall] ^ BALL[1][blackBall];
+        if (currPlayer == BitBoard.BLACK)
+            key ^= SIDE;
+        return key;
+    }
+}
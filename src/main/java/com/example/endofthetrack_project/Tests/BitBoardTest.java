@@ -0,0 +1,112 @@
+package com.example.endofthetrack_project.Tests;
+
+import com.example.endofthetrack_project.Model.BitBoard;
+import com.example.endofthetrack_project.Model.Board;
+import com.example.endofthetrack_project.Model.Move;
+import com.example.endofthetrack_project.Model.Position;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BitBoardTest class checks that the validation of a move agrees with the move generator of the bitboard,
+ * and that the incremental zobrist key and winner agree with the recomputed ones
+ * @author maor
+ */
+public class BitBoardTest {
+
+    // white has its ball on (3,7), a black knight blocks the column at (3,4) and a white knight is behind it at (3,2)
+    private static BitBoard blockedPass() {
+        long whiteKnights = BitBoard.bit(BitBoard.square(3, 7)) | BitBoard.bit(BitBoard.square(1, 7))
+                | BitBoard.bit(BitBoard.square(3, 2));
+        long blackKnights = BitBoard.bit(BitBoard.square(3, 4)) | BitBoard.bit(BitBoard.square(5, 0));
+        return new BitBoard(whiteKnights, blackKnights, BitBoard.square(3, 7), BitBoard.square(5, 0), BitBoard.WHITE);
+    }
+
+    @Test
+    public void passOntoBlockingOpponentKnightIsRejected() {
+        BitBoard bitBoard = blockedPass();
+        int from = BitBoard.square(3, 7);
+        int blocker = BitBoard.square(3, 4);
+        assertFalse(bitBoard.validBallMove(BitBoard.WHITE, from, blocker));
+        assertFalse(bitBoard.validMove(Move.encode(from, blocker, true)));
+        // the knight behind the blocker can't get the ball either
+        assertFalse(bitBoard.validMove(Move.encode(from, BitBoard.square(3, 2), true)));
+        assertTrue(bitBoard.validMove(Move.encode(from, BitBoard.square(1, 7), true)));
+    }
+
+    @Test
+    public void passOntoBlockingOpponentKnightIsRejectedByBoard() {
+        Board board = new Board(blockedPass());
+        assertFalse(board.makeMove(board.getCell(BitBoard.square(3, 7)), board.getCell(BitBoard.square(3, 4))));
+        assertEquals(BitBoard.square(3, 7), board.toBitBoard().getBall(BitBoard.WHITE));
+    }
+
+    @Test
+    public void validMoveAgreesWithGenerateMoves() {
+        BitBoard bitBoard = blockedPass();
+        int[] moves = new int[Move.MAX_MOVES];
+        int count = bitBoard.generateMoves(moves);
+        int valid = 0;
+        for (int from = 0; from < BitBoard.SQUARES; from++) {
+            for (int to = 0; to < BitBoard.SQUARES; to++) {
+                for (boolean pass : new boolean[] {false, true}) {
+                    int move = Move.encode(from, to, pass);
+                    boolean generated = false;
+                    for (int i = 0; i < count; i++) {
+                        generated |= moves[i] == move;
+                    }
+                    assertEquals(Move.toString(move), generated, bitBoard.validMove(move));
+                    if (generated)
+                        valid++;
+                }
+            }
+        }
+        assertEquals(count, valid);
+    }
+
+    @Test
+    public void makeAndUnmakeKeepTheZobristKeyAndWinner() {
+        Random random = new Random(1);
+        int[] moves = new int[Move.MAX_MOVES];
+        for (int game = 0; game < 200; game++) {
+            BitBoard bitBoard = new BitBoard();
+            for (int ply = 0; ply < 200 && !bitBoard.isGameOver(); ply++) {
+                int count = bitBoard.generateMoves(moves);
+                for (int i = 0; i < count; i++) {
+                    long key = bitBoard.getZobristKey();
+                    bitBoard.makeMove(moves[i]);
+                    assertEquals(Move.toString(moves[i]), Position.of(bitBoard).zobristKey(), bitBoard.getZobristKey());
+                    assertEquals(Move.toString(moves[i]), Position.of(bitBoard).toBitBoard().getWinner(), bitBoard.getWinner());
+                    bitBoard.unmakeMove(moves[i]);
+                    assertEquals(Move.toString(moves[i]), key, bitBoard.getZobristKey());
+                    assertEquals(Move.toString(moves[i]), Board.IN_PROGRESS, bitBoard.getWinner());
+                }
+                bitBoard.makeMove(moves[random.nextInt(count)]);
+                if (!bitBoard.isGameOver()) {
+                    bitBoard.switchTurn();
+                    assertEquals(Position.of(bitBoard).zobristKey(), bitBoard.getZobristKey());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void passToGoalRowSetsTheWinnerAndUnmakeClearsIt() {
+        long whiteKnights = BitBoard.bit(BitBoard.square(3, 7)) | BitBoard.bit(BitBoard.square(3, 0));
+        long blackKnights = BitBoard.bit(BitBoard.square(5, 0));
+        BitBoard bitBoard = new BitBoard(whiteKnights, blackKnights, BitBoard.square(3, 7), BitBoard.square(5, 0), BitBoard.WHITE);
+        int move = Move.encode(BitBoard.square(3, 7), BitBoard.square(3, 0), true);
+        assertEquals(Board.IN_PROGRESS, bitBoard.getWinner());
+        bitBoard.makeMove(move);
+        assertEquals(BitBoard.WHITE, bitBoard.getWinner());
+        assertTrue(bitBoard.isGameOver());
+        bitBoard.unmakeMove(move);
+        assertEquals(Board.IN_PROGRESS, bitBoard.getWinner());
+        assertFalse(bitBoard.isGameOver());
+    }
+}
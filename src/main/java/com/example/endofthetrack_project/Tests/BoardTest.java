@@ -0,0 +1,131 @@
+package com.example.endofthetrack_project.Tests;
+
+import com.example.endofthetrack_project.Model.BitBoard;
+import com.example.endofthetrack_project.Model.Board;
+import com.example.endofthetrack_project.Model.Move;
+import com.example.endofthetrack_project.Model.Position;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BoardTest class checks that making and taking back packed moves keeps the cells and the bitboard mirror of the board equal
+ * @author maor
+ */
+public class BoardTest {
+
+    private static final int GAMES = 200;
+    private static final int MAX_PLIES = 200;
+
+    /**
+     * play a random game with makeMove, the turn is switched after every move that does not end the game
+     * @param board : the board to play on
+     * @param random : the source of the moves
+     * @param check : the check that runs after every move and every turn switch
+     * @return : the number of moves that were made
+     */
+    static int playRandomGame(Board board, Random random, Runnable check) {
+        int[] moves = new int[Move.MAX_MOVES];
+        int plies = 0;
+        while (plies < MAX_PLIES && !board.isGameOver()) {
+            int count = board.generateMoves(moves);
+            assertTrue(count > 0);
+            assertTrue(board.makeMove(moves[random.nextInt(count)]));
+            plies++;
+            check.run();
+            if (!board.isGameOver()) {
+                board.switchTurn();
+                check.run();
+            }
+        }
+        return plies;
+    }
+
+    /**
+     * take back the moves of playRandomGame, from the last one
+     * @param board : the board of the game
+     * @param plies : the number of moves that were made
+     * @param check : the check that runs after every move that is taken back and every turn switch
+     */
+    static void unmakeGame(Board board, int plies, Runnable check) {
+        // the last move switched the turn only if it did not end the game
+        if (!board.isGameOver()) {
+            board.switchTurn();
+            check.run();
+        }
+        for (int ply = plies; ply > 0; ply--) {
+            assertTrue(board.unmakeMove() != Move.NONE);
+            check.run();
+            if (ply > 1) {
+                board.switchTurn();
+                check.run();
+            }
+        }
+        assertEquals(Move.NONE, board.unmakeMove());
+    }
+
+    @Test
+    public void randomGamesKeepCellsAndBitBoardEqual() {
+        Random random = new Random(1);
+        for (int game = 0; game < GAMES; game++) {
+            Board board = new Board();
+            Runnable check = () -> assertEquals(board.toBitBoard(), board.getBitBoard());
+            int plies = playRandomGame(board, random, check);
+            unmakeGame(board, plies, check);
+        }
+    }
+
+    @Test
+    public void unmakingEveryMoveReturnsToStart() {
+        Random random = new Random(2);
+        String start = new Board().toString();
+        for (int game = 0; game < GAMES; game++) {
+            Board board = new Board();
+            int plies = playRandomGame(board, random, () -> { });
+            unmakeGame(board, plies, () -> { });
+            assertEquals(new BitBoard(), board.getBitBoard());
+            assertEquals(new BitBoard(), board.toBitBoard());
+            assertEquals(start, board.toString());
+            assertEquals(BitBoard.WHITE, board.getCurrPlayer().getId());
+        }
+    }
+
+    @Test
+    public void incrementalZobristKeyEqualsRecomputedKey() {
+        Random random = new Random(3);
+        for (int game = 0; game < GAMES; game++) {
+            Board board = new Board();
+            Runnable check = () -> {
+                assertEquals(Position.of(board.getBitBoard()).zobristKey(), board.getZobristKey());
+                assertEquals(board.toBitBoard().getZobristKey(), board.getZobristKey());
+            };
+            int plies = playRandomGame(board, random, check);
+            unmakeGame(board, plies, check);
+            assertEquals(Position.START.zobristKey(), board.getZobristKey());
+        }
+    }
+
+    @Test
+    public void incrementalWinnerEqualsRecomputedWinner() {
+        Random random = new Random(4);
+        int won = 0;
+        for (int game = 0; game < GAMES; game++) {
+            Board board = new Board();
+            Runnable check = () -> {
+                assertEquals(Position.of(board.getBitBoard()).toBitBoard().getWinner(), board.checkStatus());
+                assertEquals(board.toBitBoard().getWinner(), board.checkStatus());
+            };
+            int plies = playRandomGame(board, random, check);
+            if (board.isGameOver()) {
+                assertEquals(board.getCurrPlayer().getId(), board.checkStatus());
+                won++;
+            }
+            unmakeGame(board, plies, check);
+            assertEquals(Board.IN_PROGRESS, board.checkStatus());
+        }
+        assertTrue(won > 0);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.endofthetrack_project.Tests;
+
+import com.example.endofthetrack_project.Model.BitBoard;
+import com.example.endofthetrack_project.Model.Board;
+import com.example.endofthetrack_project.Model.Move;
+import com.example.endofthetrack_project.Model.Perft;
+import com.example.endofthetrack_project.Model.Position;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * PerftTest class checks the move paths of Perft against the counts of the first version of the game
+ * @author maor
+ */
+public class PerftTest {
+
+    // the leaf nodes from the start position at depths 1 to 4
+    private static final long[] START_COUNTS = {18, 324, 6156, 116864};
+
+    @Test
+    public void startPositionCounts() {
+        for (int depth = 1; depth <= START_COUNTS.length; depth++) {
+            long expected = START_COUNTS[depth - 1];
+            assertEquals("cells at depth " + depth, expected, Perft.perftCells(new Board(Position.START), depth));
+            assertEquals("board at depth " + depth, expected, Perft.perftBoard(new Board(Position.START), depth));
+            assertEquals("bitboard at depth " + depth, expected, Perft.perft(Position.START, depth));
+        }
+    }
+
+    @Test
+    public void pathsAgreeOnRandomPositions() {
+        Random random = new Random(1);
+        int[] moves = new int[Move.MAX_MOVES];
+        for (int game = 0; game < 30; game++) {
+            BitBoard bitBoard = new BitBoard();
+            int plies = 10 + random.nextInt(60);
+            for (int ply = 0; ply < plies && !bitBoard.isGameOver(); ply++) {
+                int moveCount = bitBoard.generateMoves(moves);
+                if (moveCount > 0)
+                    bitBoard.makeMove(moves[random.nextInt(moveCount)]);
+                if (!bitBoard.isGameOver())
+                    bitBoard.switchTurn();
+            }
+            if (bitBoard.isGameOver())
+                continue;
+            Position position = Position.of(bitBoard);
+            long expected = Perft.perftCells(new Board(bitBoard), 2);
+            assertEquals(bitBoard.toString(), expected, Perft.perftBoard(new Board(bitBoard), 2));
+            assertEquals(bitBoard.toString(), expected, Perft.perft(position, 2));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.endofthetrack_project.Tests;
+
+import com.example.endofthetrack_project.Model.AI.MCTSPlayer;
+import com.example.endofthetrack_project.Model.AI.SearchBudget;
+import com.example.endofthetrack_project.Model.AI.SearchHandle;
+import com.example.endofthetrack_project.Model.AI.SearchProgress;
+import com.example.endofthetrack_project.Model.Board;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SearchHandleTest class checks how a search in the background ends
+ * @author maor
+ */
+public class SearchHandleTest {
+
+    private static MCTSPlayer newPlayer() {
+        MCTSPlayer player = new MCTSPlayer();
+        player.setBudget(SearchBudget.ofIterations(200));
+        return player;
+    }
+
+    @Test
+    public void searchPlaysAMove() throws InterruptedException {
+        SearchHandle handle = newPlayer().startSearch(new Board(), null, 10);
+        Board next = handle.await();
+        assertNotNull(next);
+        assertTrue(handle.isDone());
+        assertNull(handle.getFailure());
+        assertTrue(handle.getProgress().done());
+    }
+
+    @Test
+    public void cancelledSearchHasNoMove() throws InterruptedException {
+        MCTSPlayer player = newPlayer();
+        player.setBudget(SearchBudget.ofMillis(10_000));
+        SearchHandle handle = player.startSearch(new Board(), null, 10);
+        handle.cancel();
+        assertNull(handle.await());
+        assertNull(handle.getFailure());
+    }
+
+    @Test
+    public void failureOfTheSearchIsRethrown() throws InterruptedException {
+        MCTSPlayer player = newPlayer();
+        IllegalStateException failure = new IllegalStateException("rollout failed");
+        player.setRolloutPolicy((bitBoard, moves, moveCount, weights, random) -> {
+            throw failure;
+        });
+        List<SearchProgress> snapshots = new CopyOnWriteArrayList<>();
+        SearchHandle handle = player.startSearch(new Board(), snapshots::add, 10);
+
+        assertSame(failure, assertThrows(IllegalStateException.class, handle::await));
+        assertTrue(handle.isDone());
+        assertSame(failure, handle.getFailure());
+        assertSame(failure, assertThrows(IllegalStateException.class, handle::getResult));
+        assertTrue(handle.getProgress().done());
+        // the listener still gets the last snapshot
+        for (int i = 0; i < 100 && (snapshots.isEmpty() || !snapshots.get(snapshots.size() - 1).done()); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(snapshots.isEmpty());
+        assertEquals(true, snapshots.get(snapshots.size() - 1).done());
+    }
+}
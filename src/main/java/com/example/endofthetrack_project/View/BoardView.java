@@ -74,16 +74,16 @@ public class BoardView {
         // build the board
         for (int i = 1;i < WIDTH - 1;i++) {
             this.cells[HEIGHT - 1][i] = new Cell(i, HEIGHT - 1);
-            Piece p = new Knight("white", i);
+            Piece p = new Knight(Piece.WHITE, i);
             this.cells[HEIGHT - 1][i].setPiece(p);
         }
         for (int i = 1;i < WIDTH - 1;i++) {
             this.cells[0][i] = new Cell(i, 0);
-            Piece p = new Knight("black", 6 + i);
+            Piece p = new Knight(Piece.BLACK, 6 + i);
             this.cells[0][i].setPiece(p);
         }
-        Ball whiteBall = new Ball("white", 6);
-        Ball blackBall = new Ball("black", 12);
+        Ball whiteBall = new Ball(Piece.WHITE, 6);
+        Ball blackBall = new Ball(Piece.BLACK, 12);
         this.cells[0][WIDTH / 2].setPiece(blackBall);
         this.cells[HEIGHT - 1][WIDTH / 2].setPiece(whiteBall);
 
@@ -92,7 +92,7 @@ public class BoardView {
             for (int j = 0;j < WIDTH;j++) {
                 if (this.cells[i][j] == null) {
                     this.cells[i][j] = new Cell(j, i);
-                    this.cells[i][j].setPiece(new Knight("none", 0));
+                    this.cells[i][j].setPiece(new Knight(Piece.NONE, 0));
                 }
             }
         }
@@ -114,6 +114,14 @@ public class BoardView {
         newGame.setOnMouseClicked(new EventHandler<MouseEvent>() {
             @Override
             public void handle(MouseEvent mouseEvent) {
+                // the computer player of this game stops searching
+                if (controller != null) {
+                    try {
+                        controller.endGame();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
                 OpenScreen openScreen = new OpenScreen();
                 borderPane.getChildren().clear();
                 openScreen.start(stage);
@@ -151,8 +159,8 @@ public class BoardView {
             }
         }
         if (this.controller.getModel().isWinner(this.controller.getModel().getCurrPlayer())) {
-            System.out.println("Win: " + this.controller.getModel().getCurrPlayer().getColor());
-            winner.setText("Winner: " + this.controller.getModel().getCurrPlayer().getColor());
+            System.out.println("Win: " + this.controller.getModel().getCurrPlayer().getColorName());
+            winner.setText("Winner: " + this.controller.getModel().getCurrPlayer().getColorName());
             winner.setFont(Font.font(20));
 
 
@@ -255,7 +263,7 @@ public class BoardView {
 
         // check if the source cell is empty
 
-        if (source.getPiece().size() == 1 && p.getColor().equals("none")) {
+        if (source.getPiece().size() == 1 && p.getColor() == Piece.NONE) {
 
             // find the source cell in the grid pane
             boolean sourceFound = false;
@@ -377,8 +385,8 @@ public class BoardView {
                 setMouseEventForCellView(cellViews[s_row][s_col]);
                 setMouseEventForCellView(cellViews[d_row][d_col]);
                 if (this.controller.getModel().isWinner(this.controller.getModel().getCurrPlayer())) {
-                    System.out.println("Win: " + this.controller.getModel().getCurrPlayer().getColor());
-                    winner.setText("Winner: " + this.controller.getModel().getCurrPlayer().getColor());
+                    System.out.println("Win: " + this.controller.getModel().getCurrPlayer().getColorName());
+                    winner.setText("Winner: " + this.controller.getModel().getCurrPlayer().getColorName());
                     winner.setFont(Font.font(20));
                 }
             }
@@ -400,8 +408,8 @@ public class BoardView {
                 setMouseEventForCellView(cellViews[s_row][s_col]);
                 setMouseEventForCellView(cellViews[d_row][d_col]);
                 if (this.controller.getModel().isWinner(this.controller.getModel().getCurrPlayer())) {
-                    System.out.println("Win: " + this.controller.getModel().getCurrPlayer().getColor());
-                    winner.setText("Winner: " + this.controller.getModel().getCurrPlayer().getColor());
+                    System.out.println("Win: " + this.controller.getModel().getCurrPlayer().getColorName());
+                    winner.setText("Winner: " + this.controller.getModel().getCurrPlayer().getColorName());
                     winner.setFont(Font.font(25));
                 }
             }
@@ -412,7 +420,7 @@ public class BoardView {
      * This function takes a list of cells and highlights the available moves for each piece
      * on the board by changing the color of the corresponding cell in the view.
      * <p>
-     * If the color of the piece is "none", the corresponding cell's KnightView is set to have
+     * If the color of the piece is NONE, the corresponding cell's KnightView is set to have
      * a fill color of GOLD.
      * <p>
      * Otherwise, the corresponding cell's BallView is set to have a fill color of GOLD.
@@ -435,7 +443,7 @@ public class BoardView {
             Cell c = it.next();
             Iterator<Piece> pieceIterator = c.getPiece().iterator();
             Piece p = pieceIterator.next();
-            if (p.getColor().equals("none")) {
+            if (p.getColor() == Piece.NONE) {
                 cellViews[c.getY()][c.getX()].getKnightView().setFill(Color.GOLD);
             }
             else {
@@ -446,6 +454,33 @@ public class BoardView {
     }
 
 
+    /**
+     * This function highlights the targets of a list of packed moves (see Move).
+     * <p>
+     * For a knight move the target cell's KnightView is set to have a fill color of GOLD,
+     * for a ball pass the target cell's BallView is set to have a fill color of GOLD.
+     * <p>
+     * Efficiency:
+     * <p>
+     * Time Complexity: O(n), where n is the number of moves
+     * <p>
+     * Space Complexity: O(1), the function does not create any new data structures
+     *
+     * @param moves the buffer of packed moves
+     * @param moveCount the number of moves in the buffer
+     */
+    public void showAvailableMoves (int[] moves, int moveCount) {
+        for (int i = 0; i < moveCount; i++) {
+            CellView cellView = cellViews[BitBoard.row(Move.to(moves[i]))][BitBoard.column(Move.to(moves[i]))];
+            if (Move.isPass(moves[i])) {
+                cellView.getBallView().setFill(Color.GOLD);
+            }
+            else {
+                cellView.getKnightView().setFill(Color.GOLD);
+            }
+        }
+    }
+
     /**
      * This function removes the visual indication of available moves from the board
      * by setting the fill color of the corresponding cellViews to their original value.
@@ -464,7 +499,7 @@ public class BoardView {
             Cell c = it.next();
             Iterator<Piece> pieceIterator = c.getPiece().iterator();
             Piece p = pieceIterator.next();
-            if (p.getColor().equals("none")) {
+            if (p.getColor() == Piece.NONE) {
                 cellViews[c.getY()][c.getX()].getKnightView().setFill(CellView.NONE_KNIGHT);
             }
             else {
@@ -473,4 +508,29 @@ public class BoardView {
         }
     }
 
+    /**
+     * This function removes the visual indication of the targets of a list of packed moves (see Move)
+     * by setting the fill color of the corresponding cellViews to their original value.
+     * <p>
+     * Efficiency:
+     * <p>
+     * Time Complexity: O(n), where n is the number of moves
+     * <p>
+     * Space Complexity: O(1), constant space complexity as the function only uses constant space
+     *
+     * @param moves the buffer of packed moves
+     * @param moveCount the number of moves in the buffer
+     */
+    public void unShowAvailableMoves (int[] moves, int moveCount) {
+        for (int i = 0; i < moveCount; i++) {
+            CellView cellView = cellViews[BitBoard.row(Move.to(moves[i]))][BitBoard.column(Move.to(moves[i]))];
+            if (Move.isPass(moves[i])) {
+                cellView.getBallView().setFill(Color.TRANSPARENT);
+            }
+            else {
+                cellView.getKnightView().setFill(CellView.NONE_KNIGHT);
+            }
+        }
+    }
+
 }
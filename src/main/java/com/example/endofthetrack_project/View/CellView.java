@@ -41,7 +41,7 @@ public class CellView extends StackPane {
             Iterator<Piece> iterator = this.cell.getPiece().iterator();
             Piece knight = iterator.next();
             Piece ball = iterator.next();
-            if (knight.getColor().equals("white") && ball.getColor().equals("white")) {
+            if (knight.getColor() == Piece.WHITE && ball.getColor() == Piece.WHITE) {
                 this.knightView = new Rectangle(RECT_SIZE, RECT_SIZE, WHITE_KNIGHT);
                 this.knightView.setStroke(Color.BLACK);
                 this.knightView.setStrokeWidth(2);
@@ -50,7 +50,7 @@ public class CellView extends StackPane {
                 this.ballView.setStroke(Color.BLACK);
                 this.ballView.setStrokeWidth(2);
                 getChildren().addAll(knightView, ballView);
-            } else if (knight.getColor().equals("black") && ball.getColor().equals("black")) {
+            } else if (knight.getColor() == Piece.BLACK && ball.getColor() == Piece.BLACK) {
                 this.knightView = new Rectangle(RECT_SIZE, RECT_SIZE, BLACK_KNIGHT);
                 this.knightView.setStroke(WHITE_KNIGHT);
                 this.knightView.setStrokeWidth(2);
@@ -63,7 +63,7 @@ public class CellView extends StackPane {
         } else if (this.cell.getPiece().size() == 1) {
             Iterator<Piece> iterator = this.cell.getPiece().iterator();
             Piece knight = iterator.next();
-            if (knight.getColor().equals("white")) {
+            if (knight.getColor() == Piece.WHITE) {
                 this.knightView = new Rectangle(RECT_SIZE, RECT_SIZE, WHITE_KNIGHT);
                 this.knightView.setStroke(Color.BLACK);
                 this.knightView.setStrokeWidth(2);
@@ -73,7 +73,7 @@ public class CellView extends StackPane {
                 this.ballView.setStrokeWidth(2);
 
                 getChildren().addAll(knightView, ballView);
-            } else if (knight.getColor().equals("black")) {
+            } else if (knight.getColor() == Piece.BLACK) {
                 this.knightView = new Rectangle(RECT_SIZE, RECT_SIZE, BLACK_KNIGHT);
                 this.knightView.setStroke(Color.WHITE);
                 this.knightView.setStrokeWidth(2);